@@ -0,0 +1,467 @@
+/*
+ * Name: AVLMap.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Comparator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+
+// Self-balancing version of BSTMap. Every node stores the height of its
+// subtree, and insertions rotate the tree so that the two children of any
+// node never differ in height by more than one. This keeps the depth near
+// log2(n) even when the keys arrive in sorted order.
+public class AVLMap<K, V> implements MapSet<K, V> {
+
+	//Fields
+	private TNode root;
+	private Comparator<K> comp;
+	private int size;
+	private long comparisons;
+
+	// Results of the last insertion, filled in by insert
+	private V oldValue;
+	private V newValue;
+	private boolean added;
+
+	//Constructor
+	public AVLMap( Comparator<K> comp ) {
+		this.root = null;
+		this.comp = comp;
+		this.size = 0;
+		this.comparisons = 0;
+	}
+
+	// Adds or updates a key-value pair
+	// Returns the old value or null if no old value existed
+	public V put( K key, V value ) {
+		this.root = this.insert( this.root, key, value, null );
+		return this.oldValue;
+	}
+
+	// Adds the pair if the key is missing, otherwise combines the old value
+	// with the given value using fn. Returns the new value
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		this.root = this.insert( this.root, key, value, fn );
+		return this.newValue;
+	}
+
+	// Adds or updates every pair in the list, as if by put in list order.
+	// Like BSTMap.putAll, this merges sorted input with the existing nodes
+	// and relinks them into a perfectly balanced tree in O(n), sorting
+	// unsorted input first, instead of rotating after every insertion
+	public void putAll( ArrayList<KeyValuePair<K, V>> pairs ) {
+		ArrayList<KeyValuePair<K, V>> sorted = pairs;
+		for ( int i = 1; i < pairs.size(); i++ ) {
+			if ( this.comp.compare( pairs.get(i-1).getKey(), pairs.get(i).getKey() ) > 0 ) {
+				// The sort is stable, so later duplicates stay later
+				sorted = new ArrayList<KeyValuePair<K, V>>( pairs );
+				sorted.sort( (a, b) -> this.comp.compare( a.getKey(), b.getKey() ) );
+				break;
+			}
+		}
+
+		// Merge the new pairs into the existing nodes, both in key order
+		ArrayList<TNode> nodes = new ArrayList<TNode>( this.size );
+		if ( this.root != null ) {
+			this.root.inOrder( nodes );
+		}
+		ArrayList<TNode> merged = new ArrayList<TNode>( nodes.size() + sorted.size() );
+		int i = 0;
+		for ( int j = 0; j < sorted.size(); j++ ) {
+			KeyValuePair<K, V> pair = sorted.get(j);
+			// Of several pairs with the same key, the last one wins
+			if ( j + 1 < sorted.size() && this.comp.compare( pair.getKey(), sorted.get(j+1).getKey() ) == 0 ) {
+				continue;
+			}
+			while ( i < nodes.size() && this.comp.compare( nodes.get(i).data.getKey(), pair.getKey() ) < 0 ) {
+				merged.add( nodes.get(i++) );
+			}
+			if ( i < nodes.size() && this.comp.compare( nodes.get(i).data.getKey(), pair.getKey() ) == 0 ) {
+				nodes.get(i).data.setValue( pair.getValue() );
+				merged.add( nodes.get(i++) );
+			} else {
+				merged.add( new TNode( pair.getKey(), pair.getValue() ) );
+			}
+		}
+		while ( i < nodes.size() ) {
+			merged.add( nodes.get(i++) );
+		}
+
+		this.root = this.build( merged, 0, merged.size() - 1 );
+		this.size = merged.size();
+	}
+
+	// Links nodes[low] to nodes[high], which are in key order, into a
+	// balanced subtree, sets the heights and returns its root
+	private TNode build( ArrayList<TNode> nodes, int low, int high ) {
+		if ( low > high ) {
+			return null;
+		}
+		int mid = (low + high) >>> 1;
+		TNode node = nodes.get( mid );
+		node.left = this.build( nodes, low, mid - 1 );
+		node.right = this.build( nodes, mid + 1, high );
+		node.updateHeight();
+		return node;
+	}
+
+	// Gets the value at the specified key
+	// If the key is not present, returns null
+	public V get( K key ) {
+		TNode node = this.find( key );
+		if ( node == null ) {
+			return null;
+		}
+		return node.data.getValue();
+	}
+
+	// Returns true if the map contains a key-value pair with the given key
+	public boolean containsKey( K key ) {
+		return this.find( key ) != null;
+	}
+
+	// Returns the node holding key, or null if there is none
+	private TNode find( K key ) {
+		TNode curNode = this.root;
+		while ( curNode != null ) {
+			this.comparisons++;
+			int c = this.comp.compare( key, curNode.data.getKey() );
+			if ( c == 0 ) {
+				return curNode;
+			}
+			curNode = c < 0 ? curNode.left : curNode.right;
+		}
+		return null;
+	}
+
+	// Insert or update key below node, then rebalance on the way back up
+	// If fn is null the value replaces the old one, otherwise it is merged
+	// Returns the new root of the subtree
+	private TNode insert( TNode node, K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		// Reached an empty spot, so the key is new
+		if ( node == null ) {
+			this.oldValue = null;
+			this.newValue = value;
+			this.added = true;
+			this.size++;
+			return new TNode( key, value );
+		}
+
+		this.comparisons++;
+		int c = this.comp.compare( key, node.data.getKey() );
+
+		// If this node contains the key, update it; the shape does not change
+		if ( c == 0 ) {
+			this.oldValue = node.data.getValue();
+			this.newValue = fn == null ? value : fn.apply( this.oldValue, value );
+			this.added = false;
+			node.data.setValue( this.newValue );
+			return node;
+		}
+
+		if ( c < 0 ) {
+			node.left = this.insert( node.left, key, value, fn );
+		} else {
+			node.right = this.insert( node.right, key, value, fn );
+		}
+
+		// Only a new node can change heights
+		if ( !this.added ) {
+			return node;
+		}
+		return this.rebalance( node );
+	}
+
+	// Restore the height invariant at node after one of its subtrees grew
+	// Returns the new root of the subtree
+	private TNode rebalance( TNode node ) {
+		node.updateHeight();
+		int balance = node.balance();
+
+		// Left side is too tall
+		if ( balance > 1 ) {
+			if ( node.left.balance() < 0 ) {
+				node.left = this.rotateLeft( node.left );
+			}
+			return this.rotateRight( node );
+		}
+		// Right side is too tall
+		if ( balance < -1 ) {
+			if ( node.right.balance() > 0 ) {
+				node.right = this.rotateRight( node.right );
+			}
+			return this.rotateLeft( node );
+		}
+		return node;
+	}
+
+	// Lift the left child of node into its place
+	private TNode rotateRight( TNode node ) {
+		TNode top = node.left;
+		node.left = top.right;
+		top.right = node;
+		node.updateHeight();
+		top.updateHeight();
+		return top;
+	}
+
+	// Lift the right child of node into its place
+	private TNode rotateLeft( TNode node ) {
+		TNode top = node.right;
+		node.right = top.left;
+		top.left = node;
+		node.updateHeight();
+		top.updateHeight();
+		return top;
+	}
+
+	// Returns an ArrayList of all the keys in the map.
+	// Uses pre-order traversal
+	public ArrayList<K> keySet() {
+		ArrayList<K> keys = new ArrayList<K>( this.size );
+		if ( this.root != null ) {
+			this.root.keySet( keys );
+		}
+		return keys;
+	}
+
+	// Returns an ArrayList of all the values in the map in the same order as keySet
+	public ArrayList<V> values() {
+		ArrayList<V> vals = new ArrayList<V>( this.size );
+		if ( this.root != null ) {
+			this.root.values( vals );
+		}
+		return vals;
+	}
+
+	// Returns an ArrayList of all the key-value pairs
+	// Uses pre-order traversal
+	public ArrayList<KeyValuePair<K, V>> entrySet() {
+		ArrayList<KeyValuePair<K, V>> pairs = new ArrayList<KeyValuePair<K, V>>( this.size );
+		if ( this.root != null ) {
+			this.root.entrySet( pairs );
+		}
+		return pairs;
+	}
+
+	// Returns an iterator over the pairs in pre-order, the order of entrySet
+	// The pairs are the ones stored in the tree, not copies
+	public Iterator<KeyValuePair<K, V>> iterator() {
+		// The tree is balanced, so the stack never holds more than
+		// about one node per level
+		ArrayList<TNode> stack = new ArrayList<TNode>();
+		if ( this.root != null ) {
+			stack.add( this.root );
+		}
+		return new Iterator<KeyValuePair<K, V>>() {
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			public KeyValuePair<K, V> next() {
+				if ( stack.isEmpty() ) {
+					throw new NoSuchElementException();
+				}
+				TNode node = stack.remove( stack.size() - 1 );
+				if ( node.right != null ) {
+					stack.add( node.right );
+				}
+				if ( node.left != null ) {
+					stack.add( node.left );
+				}
+				return node.data;
+			}
+		};
+	}
+
+	// Returns a string representation of the map with proper indentation
+	public String toString() {
+		if (this.root == null) {
+			return "root: null";
+		}
+		return "root: " + this.root.treeString( "" );
+	}
+
+	// Calls action on every key and value, in the same pre-order as
+	// entrySet, without building a list of the pairs
+	public void forEach( BiConsumer<? super K, ? super V> action ) {
+		if ( this.root != null ) {
+			this.root.forEach( action );
+		}
+	}
+
+	// Returns the number of key-value pairs in the map.
+	public int size() {
+		return this.size;
+	}
+
+	// removes all mappings from this MapSet
+	public void clear() {
+		this.root = null;
+		this.size = 0;
+	}
+
+	// Returns the number of keys compared by puts, merges and lookups
+	// since the tree was made
+	public long getComparisons() {
+		return this.comparisons;
+	}
+
+	// Return the maximum depth of the tree
+	// Heights are stored in the nodes, so this does not walk the tree
+	public int getDepth() {
+		if (this.root == null) {
+			return 0;
+		}
+		return this.root.height;
+	}
+
+
+	// Private inner class for nodes
+	private class TNode {
+		//Fields
+		TNode left;
+		TNode right;
+		int height;
+		KeyValuePair<K, V> data;
+
+		//Constructor
+		public TNode( K k, V v ) {
+			this.left = null;
+			this.right = null;
+			this.height = 1;
+			this.data = new KeyValuePair<K, V>( k, v );
+		}
+
+		// Recompute this node's height from its children
+		public void updateHeight() {
+			int lDep = this.left == null ? 0 : this.left.height;
+			int rDep = this.right == null ? 0 : this.right.height;
+			this.height = 1 + (lDep > rDep ? lDep : rDep);
+		}
+
+		// Returns the left height minus the right height
+		public int balance() {
+			int lDep = this.left == null ? 0 : this.left.height;
+			int rDep = this.right == null ? 0 : this.right.height;
+			return lDep - rDep;
+		}
+
+		// Adds all the nodes in this subtree in key order
+		public void inOrder( ArrayList<TNode> nodes ) {
+			if ( this.left != null ) {
+				this.left.inOrder( nodes );
+			}
+			nodes.add( this );
+			if ( this.right != null ) {
+				this.right.inOrder( nodes );
+			}
+		}
+
+		// Calls action on every pair in this subtree using pre-order traversal
+		public void forEach( BiConsumer<? super K, ? super V> action ) {
+			action.accept( this.data.getKey(), this.data.getValue() );
+
+			if ( this.left != null ) {
+				this.left.forEach( action );
+			}
+			if ( this.right != null ) {
+				this.right.forEach( action );
+			}
+		}
+
+		// Adds all the keys in this subtree using pre-order traversal
+		public void keySet( ArrayList<K> keys ) {
+			keys.add( this.data.getKey() );
+
+			if ( this.left != null ) {
+				this.left.keySet( keys );
+			}
+			if ( this.right != null ) {
+				this.right.keySet( keys );
+			}
+		}
+
+		// Adds all the values in this subtree in the same order as keySet
+		public void values( ArrayList<V> vals ) {
+			vals.add( this.data.getValue() );
+
+			if ( this.left != null ) {
+				this.left.values( vals );
+			}
+			if ( this.right != null ) {
+				this.right.values( vals );
+			}
+		}
+
+		// Adds all the key-value pairs in this subtree using pre-order traversal
+		public void entrySet( ArrayList<KeyValuePair<K, V>> pairs ) {
+			pairs.add( this.data );
+
+			if ( this.left != null ) {
+				this.left.entrySet( pairs );
+			}
+			if ( this.right != null ) {
+				this.right.entrySet( pairs );
+			}
+		}
+
+		// Build a representation of the tree as a string
+		public String treeString( String indent ) {
+			String str = indent + this.data + "\n";
+			if ( this.left != null ) {
+				str += "left: " + this.left.treeString( indent + "    " );
+			}
+			if ( this.right != null ) {
+				str += "right:" + this.right.treeString( indent + "    " );
+			}
+			return str;
+		}
+
+	} //end TNode class
+
+	// test function
+	public static void main( String[] argv ) {
+		// create an AVLMap
+		AVLMap<String, Integer> avl = new AVLMap<String, Integer>( new StringAscending() );
+
+		System.out.println( avl.containsKey( "five" ) );
+		System.out.println( avl.get( "eleven" ) );
+		System.out.println( "" );
+
+		avl.put( "twenty", 20 );
+		avl.put( "ten", 10 );
+		avl.put( "eleven", 11 );
+		avl.put( "five", 5 );
+		avl.put( "six", 6 );
+
+		System.out.println( avl );
+		System.out.println( avl.getDepth() );
+		System.out.println( "" );
+
+		System.out.println( avl.put( "twenty", 1 ) );
+		System.out.println( avl.merge( "ten", 1, Integer::sum ) );
+		System.out.println( avl.merge( "cah", 2, Integer::sum ) );
+		System.out.println( avl.size() );
+		System.out.println( avl.keySet( ) );
+		System.out.println( avl.values( ) );
+		System.out.println( avl.entrySet( ) );
+		System.out.println( "" );
+
+		// Sorted input would make a BSTMap into a chain
+		AVLMap<Integer, Integer> sorted = new AVLMap<Integer, Integer>( Integer::compare );
+		for ( int i = 0; i < 1000000; i++ ) {
+			sorted.put( i, i );
+		}
+		System.out.println( "sorted size: " + sorted.size() );
+		System.out.println( "sorted depth: " + sorted.getDepth() );
+	}
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Name: ApproximateWordCounter.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.BiFunction;
+
+
+// Word counter with a fixed memory ceiling, for runs where the long tail
+// does not need exact counts. The hottest exactSize words are counted in a
+// small exact table. Every other word is counted in a Count-Min Sketch,
+// which never grows. A HyperLogLog sketch estimates the number of distinct
+// words.
+//
+// The exact table works like Space-Saving. It is a min-heap ordered by
+// count, with an index from word to heap position like TopKTracker. When a
+// word outside the table gets a sketch estimate bigger than the smallest
+// count in the table, it takes that word's place, starting from its
+// estimate, and the evicted word's count goes back into the sketch. So a
+// hot word that first shows up late in the text still ends up in the table.
+//
+// getCount is exact for words that have been in the table since they were
+// first seen. For any other word it may be too high, but never too low,
+// and with probability at least 1 - e^-depth it is too high by no more
+// than getErrorBound().
+//
+// It is also a MapSet, so WordCounter can use it as its APPROXMAP backend
+// and keep the same getCount, getFrequency, batch and file APIs. Only the
+// exact table is stored, so keySet, values, entrySet and forEach list just
+// the hot words, and size is the estimated number of distinct words.
+// Counts in a sketch can only grow: merge always adds, so its fn must be a
+// sum such as Integer::sum, and put only replaces counts in the exact table.
+public class ApproximateWordCounter implements MapSet<String, Integer> {
+	//Fields
+	private long totalWords;
+	private int exactSize;
+	private int size;
+	private String[] words;
+	private long[] counts;
+	// The part of each count that came from a sketch estimate; 0 if exact
+	private long[] sketched;
+	private HashMap<String, Integer> index;
+	private CountMinSketch sketch;
+	private HyperLogLog uniqueSketch;
+
+	//Constructor; width and depth size the sketch, exactSize caps the exact table
+	public ApproximateWordCounter( int width, int depth, boolean conservative, int exactSize ) {
+		this.totalWords = 0;
+		this.exactSize = exactSize;
+		this.size = 0;
+		this.words = new String[exactSize];
+		this.counts = new long[exactSize];
+		this.sketched = new long[exactSize];
+		this.index = new HashMap<String, Integer>( exactSize * 2 );
+		this.sketch = new CountMinSketch( width, depth, conservative );
+		this.uniqueSketch = new HyperLogLog( 14 );
+	}
+
+	// Process the contents of a word file, update the counts
+	public void analyze( String filename ) {
+		try {
+			Tokenizer tokens = new Tokenizer( new FileReader(filename) );
+
+			while ( tokens.next() ) {
+				this.addWord( tokens.token() );
+			}
+
+			tokens.close();
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+	}
+
+	// Count one instance of a word
+	public void addWord( String word ) {
+		this.totalWords++;
+		this.addCount( word, 1, 0 );
+	}
+
+	// Add delta to a word's count, of which fromSketch is an estimate that
+	// is already in this counter's sketch
+	// Returns the word's new count
+	private long addCount( String word, long delta, long fromSketch ) {
+		Integer pos = this.index.get( word );
+
+		// Already in the exact table, so move it down toward the bigger counts
+		if ( pos != null ) {
+			this.counts[pos] += delta;
+			this.sketched[pos] += fromSketch;
+			this.siftDown( pos );
+			return this.counts[pos];
+		}
+
+		// Still filling up the exact table
+		if ( this.size < this.exactSize && fromSketch == 0 ) {
+			this.insert( word, delta, 0 );
+			return delta;
+		}
+
+		// Repeats do not change the distinct-word sketch
+		long estimate = this.sketch.add( word, delta - fromSketch );
+		this.uniqueSketch.add( word );
+
+		// Promote the word if there is room, or if it passed the smallest
+		// exact count
+		if ( this.size < this.exactSize ) {
+			this.insert( word, estimate, estimate );
+		} else if ( this.exactSize > 0 && estimate > this.counts[0] ) {
+			this.evict( 0 );
+			this.words[0] = word;
+			this.counts[0] = estimate;
+			this.sketched[0] = estimate;
+			this.index.put( word, 0 );
+			this.siftDown( 0 );
+		}
+		return estimate;
+	}
+
+	// Add a word to the exact table, which has room for it
+	private void insert( String word, long count, long fromSketch ) {
+		this.words[this.size] = word;
+		this.counts[this.size] = count;
+		this.sketched[this.size] = fromSketch;
+		this.index.put( word, this.size );
+		this.size++;
+		this.siftUp( this.size - 1 );
+	}
+
+	// Move the word at pos back into the sketches
+	// The sketch already holds the part of its count that came from an
+	// estimate, so only the rest is added
+	private void evict( int pos ) {
+		String word = this.words[pos];
+		this.sketch.add( word, this.counts[pos] - this.sketched[pos] );
+		this.uniqueSketch.add( word );
+		this.index.remove( word );
+	}
+
+	// Move the entry at pos up while it is smaller than its parent
+	private void siftUp( int pos ) {
+		while ( pos > 0 ) {
+			int parent = (pos - 1) / 2;
+			if ( this.counts[parent] <= this.counts[pos] ) {
+				return;
+			}
+			this.swap( pos, parent );
+			pos = parent;
+		}
+	}
+
+	// Move the entry at pos down while it is bigger than a child
+	private void siftDown( int pos ) {
+		while ( true ) {
+			int child = 2 * pos + 1;
+			if ( child >= this.size ) {
+				return;
+			}
+			if ( child + 1 < this.size && this.counts[child + 1] < this.counts[child] ) {
+				child++;
+			}
+			if ( this.counts[pos] <= this.counts[child] ) {
+				return;
+			}
+			this.swap( pos, child );
+			pos = child;
+		}
+	}
+
+	// Exchange two heap entries and fix their positions in the index
+	private void swap( int a, int b ) {
+		String word = this.words[a];
+		long count = this.counts[a];
+		long fromSketch = this.sketched[a];
+		this.words[a] = this.words[b];
+		this.counts[a] = this.counts[b];
+		this.sketched[a] = this.sketched[b];
+		this.words[b] = word;
+		this.counts[b] = count;
+		this.sketched[b] = fromSketch;
+		this.index.put( this.words[a], a );
+		this.index.put( this.words[b], b );
+	}
+
+	// Add the counts of another counter made with the same sizes
+	// The sketches are merged, then the other's exact table is added
+	// word by word
+	public void addCounts( ApproximateWordCounter other ) {
+		this.sketch.merge( other.sketch );
+		this.uniqueSketch.merge( other.uniqueSketch );
+		for ( int i = 0; i < other.size; i++ ) {
+			this.addCount( other.words[i], other.counts[i], other.sketched[i] );
+		}
+		this.totalWords += other.totalWords;
+	}
+
+	// Return the total number of words in the text document
+	public long getTotalWordCount() {
+		return this.totalWords;
+	}
+
+	// Return the number of times a word appears; see the class comment for
+	// how far off this can be
+	// MapSet counts are ints, so a count past 2^31 throws ArithmeticException
+	public int getCount( String word ) {
+		Integer pos = this.index.get( word );
+		if ( pos != null ) {
+			return Math.toIntExact( this.counts[pos] );
+		}
+		return Math.toIntExact( this.sketch.estimate( word ) );
+	}
+
+	// Return true if the word's count is exact
+	public boolean isExact( String word ) {
+		Integer pos = this.index.get( word );
+		return pos != null && this.sketched[pos] == 0;
+	}
+
+	// Return the estimated number of distinct words, within about 1%
+	// Words that were promoted or evicted are already in the sketch
+	public long getUniqueWords() {
+		long exactOnly = 0;
+		for ( int i = 0; i < this.size; i++ ) {
+			if ( this.sketched[i] == 0 ) {
+				exactOnly++;
+			}
+		}
+		return exactOnly + this.uniqueSketch.estimate();
+	}
+
+	// Return the frequency of a word presence in the document
+	public double getFrequency( String word ) {
+		return (double)(this.getCount( word )) / this.totalWords;
+	}
+
+	// Return how far an estimated count can be too high by,
+	// with probability at least 1 - e^-depth
+	public double getErrorBound() {
+		return this.sketch.getErrorBound();
+	}
+
+	// Replace the count of a word in the exact table, or add value to the
+	// count of any other word, since a sketch count cannot go down
+	// Returns the old count, or null if the word had none
+	public Integer put( String word, Integer value ) {
+		Integer pos = this.index.get( word );
+		if ( pos != null ) {
+			int old = Math.toIntExact( this.counts[pos] );
+			this.counts[pos] = value;
+			this.siftUp( pos );
+			this.siftDown( this.index.get( word ) );
+			return old;
+		}
+		Integer old = this.get( word );
+		this.addCount( word, value, 0 );
+		return old;
+	}
+
+	// Add value to the word's count; fn is not called, so it must be a sum
+	// Returns the new count
+	public Integer merge( String word, Integer value, BiFunction<? super Integer, ? super Integer, ? extends Integer> fn ) {
+		return Math.toIntExact( this.addCount( word, value, 0 ) );
+	}
+
+	// Returns true if the word may have been counted
+	public boolean containsKey( String word ) {
+		return this.index.containsKey( word ) || this.sketch.estimate( word ) > 0;
+	}
+
+	// Returns the word's count, or null if it was never counted
+	public Integer get( String word ) {
+		int count = this.getCount( word );
+		return count == 0 ? null : count;
+	}
+
+	// Returns the words in the exact table
+	public ArrayList<String> keySet() {
+		ArrayList<String> list = new ArrayList<String>( this.size );
+		for ( int i = 0; i < this.size; i++ ) {
+			list.add( this.words[i] );
+		}
+		return list;
+	}
+
+	// Returns the counts in the exact table, in the same order as keySet
+	public ArrayList<Integer> values() {
+		ArrayList<Integer> list = new ArrayList<Integer>( this.size );
+		for ( int i = 0; i < this.size; i++ ) {
+			list.add( Math.toIntExact( this.counts[i] ) );
+		}
+		return list;
+	}
+
+	// Returns a pair for every word in the exact table, in heap order
+	public ArrayList<KeyValuePair<String, Integer>> entrySet() {
+		ArrayList<KeyValuePair<String, Integer>> list = new ArrayList<KeyValuePair<String, Integer>>( this.size );
+		for ( int i = 0; i < this.size; i++ ) {
+			list.add( new KeyValuePair<String, Integer>( this.words[i], Math.toIntExact( this.counts[i] ) ) );
+		}
+		return list;
+	}
+
+	// Returns the estimated number of distinct words
+	public int size() {
+		return (int)Math.min( Integer.MAX_VALUE, this.getUniqueWords() );
+	}
+
+	// Erase every count
+	public void clear() {
+		this.totalWords = 0;
+		this.size = 0;
+		this.words = new String[this.exactSize];
+		this.index.clear();
+		this.sketch.clear();
+		this.uniqueSketch.clear();
+	}
+
+	// Print the exact table
+	public String toString() {
+		return this.entrySet().toString();
+	}
+
+	// Test function
+	// Usage: java ApproximateWordCounter file word1 word2 ...
+	public static void main( String[] args ) {
+		ApproximateWordCounter approx = new ApproximateWordCounter( 1 << 16, 5, true, 1000 );
+		WordCounter exact = new WordCounter( WordCounter.COUNTMAP );
+		approx.analyze( args[0] );
+		exact.analyze( args[0] );
+
+		System.out.println( "total words: " + approx.getTotalWordCount() );
+		System.out.println( "error bound: " + approx.getErrorBound() );
+		System.out.println( "unique words: " + approx.getUniqueWords() + " (exact " + exact.getUniqueWords() + ")" );
+		System.out.println( "word, estimate, exact count, exact?" );
+		for ( int i = 1; i < args.length; i++ ) {
+			System.out.println( args[i] + "," + approx.getCount( args[i] ) + ","
+				+ exact.getCount( args[i] ) + "," + approx.isExact( args[i] ) );
+		}
+
+		// The same counts through WordCounter's APPROXMAP backend, in parallel
+		WordCounter counter = new WordCounter( WordCounter.APPROXMAP );
+		counter.analyzeParallel( args[0], 4 );
+		System.out.println( "APPROXMAP total words: " + counter.getTotalWordCount() + ", unique words: " + counter.getUniqueWords() );
+		for ( int i = 1; i < args.length; i++ ) {
+			System.out.println( args[i] + "," + counter.getCount( args[i] ) + "," + counter.getFrequency( args[i] ) );
+		}
+	}
+
+}
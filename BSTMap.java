@@ -7,19 +7,29 @@ CS 231 Project 6
 */
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
+// All of the tree walks below use loops and explicit stacks instead of
+// recursion, so an unbalanced tree costs heap, not call stack, to visit.
 public class BSTMap<K, V> implements MapSet<K, V> {
 	
 	//Fields
 	private TNode root;
+	private TNode last;
 	private Comparator<K> comp;
 	private int size;
+	private long comparisons;
 	
 	//Constructor
 	public BSTMap( Comparator<K> comp ) {
 		this.root = null;
+		this.last = null;
 		this.comp = comp;
 		this.size = 0;
+		this.comparisons = 0;
 	}
 	
 	// Adds or updates a key-value pair
@@ -28,65 +38,426 @@ public class BSTMap<K, V> implements MapSet<K, V> {
 		// If the root has no key pair:
 		if ( this.root == null ) {
 			this.root = new TNode( key, value );
+			this.last = this.root;
 			this.size++;
 			return value;
 		}
 		
+		// Keys past the current largest key go straight onto the end,
+		// so sorted input does not walk the whole right spine each time
+		this.comparisons++;
+		if ( this.comp.compare( key, this.last.data.getKey() ) > 0 ) {
+			this.last.right = new TNode( key, value );
+			this.last = this.last.right;
+			this.size++;
+			return null;
+		}
+		
 		//Otherwise, start the placement search
-		V val = this.root.put( key, value, comp );
-		if ( val == null ) { this.size++; }
-		return val;
+		TNode curNode = this.root;
+		while ( true ) {
+			this.comparisons++;
+			int c = this.comp.compare( key, curNode.data.getKey() );
+			
+			// If this node contains the key
+			if ( c == 0 ) {
+				curNode.data.setValue( value );
+				return value;
+			}
+			// If the key is to the left
+			if ( c < 0 ) {
+				if ( curNode.left == null ) {
+					curNode.left = new TNode( key, value );
+					this.size++;
+					return null;
+				}
+				curNode = curNode.left;
+			}
+			// If the key is to the right
+			else {
+				if ( curNode.right == null ) {
+					curNode.right = new TNode( key, value );
+					this.size++;
+					return null;
+				}
+				curNode = curNode.right;
+			}
+		}
 	}
-	
+
+	// Adds or updates every pair in the list, as if by put in list order,
+	// and leaves the tree perfectly balanced.
+	// Sorted input is merged with the existing nodes and the tree is rebuilt
+	// in O(n); unsorted input is sorted first.
+	public void putAll( ArrayList<KeyValuePair<K, V>> pairs ) {
+		ArrayList<KeyValuePair<K, V>> sorted = pairs;
+		for ( int i = 1; i < pairs.size(); i++ ) {
+			if ( this.comp.compare( pairs.get(i-1).getKey(), pairs.get(i).getKey() ) > 0 ) {
+				// The sort is stable, so later duplicates stay later
+				sorted = new ArrayList<KeyValuePair<K, V>>( pairs );
+				sorted.sort( (a, b) -> this.comp.compare( a.getKey(), b.getKey() ) );
+				break;
+			}
+		}
+
+		// Merge the new pairs into the existing nodes, both in key order
+		ArrayList<TNode> nodes = this.inOrder();
+		ArrayList<TNode> merged = new ArrayList<TNode>( nodes.size() + sorted.size() );
+		int i = 0;
+		for ( int j = 0; j < sorted.size(); j++ ) {
+			KeyValuePair<K, V> pair = sorted.get(j);
+			// Of several pairs with the same key, the last one wins
+			if ( j + 1 < sorted.size() && this.comp.compare( pair.getKey(), sorted.get(j+1).getKey() ) == 0 ) {
+				continue;
+			}
+			while ( i < nodes.size() && this.comp.compare( nodes.get(i).data.getKey(), pair.getKey() ) < 0 ) {
+				merged.add( nodes.get(i++) );
+			}
+			if ( i < nodes.size() && this.comp.compare( nodes.get(i).data.getKey(), pair.getKey() ) == 0 ) {
+				nodes.get(i).data.setValue( pair.getValue() );
+				merged.add( nodes.get(i++) );
+			} else {
+				merged.add( new TNode( pair.getKey(), pair.getValue() ) );
+			}
+		}
+		while ( i < nodes.size() ) {
+			merged.add( nodes.get(i++) );
+		}
+
+		this.relink( merged );
+	}
+
+	// Splits this tree for a hash table that is doubling to tableSize
+	// buckets. Every pair whose cached hash lands in a bucket other than
+	// keepIndex moves into a new tree with the same comparator, and the
+	// rest stay in this one.
+	// The nodes are relinked in place: the tree is flattened into a sorted
+	// list with rotations, the list is cut in two, and each half is rotated
+	// back into a balanced tree, all in O(n) with nothing allocated except
+	// the new tree itself.
+	// Returns null if no pair moves, this tree if every pair moves, and
+	// otherwise the new tree
+	public BSTMap<K, V> split( int tableSize, int keepIndex ) {
+		if ( this.root == null ) {
+			return null;
+		}
+		// A tree of one pair, the usual case, moves or stays whole
+		if ( this.size == 1 ) {
+			return Math.abs( this.root.data.getHash() ) % tableSize == keepIndex ? null : this;
+		}
+
+		// Flatten the tree into a list linked through right, in key order
+		TNode parent = null;
+		TNode node = this.root;
+		while ( node != null ) {
+			if ( node.left != null ) {
+				// Rotate the left child up over node
+				TNode left = node.left;
+				node.left = left.right;
+				left.right = node;
+				node = left;
+				if ( parent == null ) {
+					this.root = node;
+				} else {
+					parent.right = node;
+				}
+			} else {
+				parent = node;
+				node = node.right;
+			}
+		}
+
+		// Cut the list into the pairs that stay and the pairs that move
+		TNode keepHead = null;
+		TNode keepTail = null;
+		int keepSize = 0;
+		TNode movedHead = null;
+		TNode movedTail = null;
+		int movedSize = 0;
+		for ( node = this.root; node != null; node = node.right ) {
+			if ( Math.abs( node.data.getHash() ) % tableSize == keepIndex ) {
+				if ( keepTail == null ) {
+					keepHead = node;
+				} else {
+					keepTail.right = node;
+				}
+				keepTail = node;
+				keepSize++;
+			} else {
+				if ( movedTail == null ) {
+					movedHead = node;
+				} else {
+					movedTail.right = node;
+				}
+				movedTail = node;
+				movedSize++;
+			}
+		}
+
+		if ( movedSize == 0 ) {
+			this.relinkList( keepHead, keepTail, keepSize );
+			return null;
+		}
+		if ( keepSize == 0 ) {
+			this.relinkList( movedHead, movedTail, movedSize );
+			return this;
+		}
+		keepTail.right = null;
+		movedTail.right = null;
+		this.relinkList( keepHead, keepTail, keepSize );
+		BSTMap<K, V> other = new BSTMap<K, V>( this.comp );
+		other.relinkList( movedHead, movedTail, movedSize );
+		return other;
+	}
+
+	// Makes this tree the count nodes of the list starting at head and
+	// linked through right in key order, rotated into a balanced tree
+	// (the second half of the Day-Stout-Warren algorithm)
+	private void relinkList( TNode head, TNode tail, int count ) {
+		this.root = head;
+		this.last = tail;
+		this.size = count;
+		tail.right = null;
+
+		// Fill the bottom level first, then halve the spine until it is gone
+		int leaves = count + 1 - Integer.highestOneBit( count + 1 );
+		this.compress( leaves );
+		int spine = count - leaves;
+		while ( spine > 1 ) {
+			spine = spine / 2;
+			this.compress( spine );
+		}
+	}
+
+	// Rotates every other node of the right spine left, count times
+	private void compress( int count ) {
+		TNode parent = null;
+		for ( int i = 0; i < count; i++ ) {
+			TNode child = parent == null ? this.root : parent.right;
+			TNode next = child.right;
+			child.right = next.left;
+			next.left = child;
+			if ( parent == null ) {
+				this.root = next;
+			} else {
+				parent.right = next;
+			}
+			parent = next;
+		}
+	}
+
+	// Makes this tree the nodes in the list, which are in key order,
+	// linked into a balanced tree
+	private void relink( ArrayList<TNode> nodes ) {
+		this.root = this.build( nodes, 0, nodes.size() - 1 );
+		this.last = nodes.isEmpty() ? null : nodes.get( nodes.size() - 1 );
+		this.size = nodes.size();
+	}
+
+	// Links nodes[low] to nodes[high], which are in key order, into a
+	// balanced subtree and returns its root.
+	// The recursion is only log2(n) deep because the result is balanced
+	private TNode build( ArrayList<TNode> nodes, int low, int high ) {
+		if ( low > high ) {
+			return null;
+		}
+		int mid = (low + high) >>> 1;
+		TNode node = nodes.get( mid );
+		node.left = this.build( nodes, low, mid - 1 );
+		node.right = this.build( nodes, mid + 1, high );
+		return node;
+	}
+
 	// Gets the value at the specified key
 	// If the key is not present, returns null
 	public V get( K key ) {
-		if ( this.root == null ) {
+		TNode node = this.find( key );
+		if ( node == null ) {
 			return null;
 		}
+		return node.data.getValue();
+	}
+	
+	// Adds the pair if the key is missing, otherwise combines the old value
+	// with the given value using fn. Returns the new value
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		// If the root has no key pair:
+		if ( this.root == null ) {
+			this.root = new TNode( key, value );
+			this.last = this.root;
+			this.size++;
+			return value;
+		}
 		
-		return this.root.get( key, this.comp );
+		// Keys past the current largest key go straight onto the end
+		this.comparisons++;
+		if ( this.comp.compare( key, this.last.data.getKey() ) > 0 ) {
+			this.last.right = new TNode( key, value );
+			this.last = this.last.right;
+			this.size++;
+			return value;
+		}
+		
+		//Otherwise, walk down the tree once, updating or inserting
+		TNode curNode = this.root;
+		while ( true ) {
+			this.comparisons++;
+			int c = this.comp.compare( key, curNode.data.getKey() );
+
+			// If this node contains the key, combine the values
+			if ( c == 0 ) {
+				V newValue = fn.apply( curNode.data.getValue(), value );
+				curNode.data.setValue( newValue );
+				return newValue;
+			}
+			// If the key is to the left
+			if ( c < 0 ) {
+				if ( curNode.left == null ) {
+					curNode.left = new TNode( key, value );
+					this.size++;
+					return value;
+				}
+				curNode = curNode.left;
+			}
+			// If the key is to the right
+			else {
+				if ( curNode.right == null ) {
+					curNode.right = new TNode( key, value );
+					this.size++;
+					return value;
+				}
+				curNode = curNode.right;
+			}
+		}
 	}
 	
 	// Returns true if the map contains a key-value pair with the given key
     public boolean containsKey( K key ) {
-    	if ( this.root != null ) {
-    		return this.root.containsKey( key, this.comp );
+    	return this.find( key ) != null;
+    }
+    
+    // Returns the node holding key, or null if there is none
+    private TNode find( K key ) {
+    	TNode curNode = this.root;
+    	while ( curNode != null ) {
+    		this.comparisons++;
+    		int c = this.comp.compare( key, curNode.data.getKey() );
+    		if ( c == 0 ) {
+    			return curNode;
+    		}
+    		curNode = c < 0 ? curNode.left : curNode.right;
     	}
-    	return false;
+    	return null;
     }
     
+    // Returns the nodes of the tree in key order
+    private ArrayList<TNode> inOrder() {
+    	ArrayList<TNode> nodes = new ArrayList<TNode>( this.size );
+    	ArrayList<TNode> stack = new ArrayList<TNode>();
+    	TNode node = this.root;
+    	while ( node != null || !stack.isEmpty() ) {
+    		// Go as far left as possible, then visit and step right
+    		while ( node != null ) {
+    			stack.add( node );
+    			node = node.left;
+    		}
+    		node = stack.remove( stack.size() - 1 );
+    		nodes.add( node );
+    		node = node.right;
+    	}
+    	return nodes;
+    }
+
     // Returns an ArrayList of all the keys in the map.
     // Uses pre-order traversal
     public ArrayList<K> keySet() {
-    	ArrayList<K> keys = new ArrayList<K>();
-    	this.root.keySet( keys );
+    	ArrayList<K> keys = new ArrayList<K>( this.size );
+    	this.forEach( (key, value) -> keys.add( key ) );
     	return keys;
     }
 
     // Returns an ArrayList of all the values in the map in the same order as keySet
     public ArrayList<V> values() {
-    	ArrayList<V> vals = new ArrayList<V>();
-    	this.root.values( vals );
+    	ArrayList<V> vals = new ArrayList<V>( this.size );
+    	this.forEach( (key, value) -> vals.add( value ) );
     	return vals;
     }
     
     // Returns an ArrayList of all the key-value pairs
 	// Uses pre-order traversal
     public ArrayList<KeyValuePair<K, V>> entrySet() {
-    	ArrayList<KeyValuePair<K, V>> pairs = new ArrayList<KeyValuePair<K, V>>();
-    	this.root.entrySet( pairs );
+    	ArrayList<KeyValuePair<K, V>> pairs = new ArrayList<KeyValuePair<K, V>>( this.size );
+    	for ( KeyValuePair<K, V> pair: this ) {
+    		pairs.add( pair );
+    	}
     	return pairs;
     } 
     
+    // Returns an iterator over the pairs in pre-order, the order of entrySet
+    // The pairs are the ones stored in the tree, not copies
+    public Iterator<KeyValuePair<K, V>> iterator() {
+    	return new PreOrderIterator();
+    }
+    
     // Returns a string representation of the map with proper indentation
     public String toString() {
     	if (this.root == null) {
     		return "root: null";
     	}
-    	return "root: " + this.root.treeString( "" );
+    	
+    	// Each stack entry is a node, its label and its depth
+    	StringBuilder str = new StringBuilder( "root: " );
+    	ArrayList<TNode> stack = new ArrayList<TNode>();
+    	ArrayList<String> labels = new ArrayList<String>();
+    	ArrayList<Integer> depths = new ArrayList<Integer>();
+    	stack.add( this.root );
+    	labels.add( "" );
+    	depths.add( 0 );
+    	while ( !stack.isEmpty() ) {
+    		int top = stack.size() - 1;
+    		TNode node = stack.remove( top );
+    		String label = labels.remove( top );
+    		int depth = depths.remove( top );
+    		
+    		str.append( label );
+    		for ( int i = 0; i < depth; i++ ) {
+    			str.append( "    " );
+    		}
+    		str.append( node.data ).append( "\n" );
+    		
+    		if ( node.right != null ) {
+    			stack.add( node.right );
+    			labels.add( "right:" );
+    			depths.add( depth + 1 );
+    		}
+    		if ( node.left != null ) {
+    			stack.add( node.left );
+    			labels.add( "left: " );
+    			depths.add( depth + 1 );
+    		}
+    	}
+    	return str.toString();
     }
 
+    // Calls action on every key and value, in the same pre-order as
+    // entrySet, without building a list of the pairs
+    public void forEach( BiConsumer<? super K, ? super V> action ) {
+    	ArrayList<TNode> stack = new ArrayList<TNode>();
+    	if ( this.root != null ) {
+    		stack.add( this.root );
+    	}
+    	while ( !stack.isEmpty() ) {
+    		TNode node = stack.remove( stack.size() - 1 );
+    		action.accept( node.data.getKey(), node.data.getValue() );
+    		if ( node.right != null ) {
+    			stack.add( node.right );
+    		}
+    		if ( node.left != null ) {
+    			stack.add( node.left );
+    		}
+    	}
+    }
+    
     // Returns the number of key-value pairs in the map.
     public int size() {
     	return this.size;
@@ -95,15 +466,38 @@ public class BSTMap<K, V> implements MapSet<K, V> {
     // removes all mappings from this MapSet
     public void clear() {
     	this.root = null;
+    	this.last = null;
     	this.size = 0;
     }
 	
+	// Returns the number of keys compared by puts, merges and lookups
+	// since the tree was made
+	public long getComparisons() {
+		return this.comparisons;
+	}
+	
 	// Return the maximum depth of the tree
+	// Walks the tree one level at a time, so no stack is needed
 	public int getDepth() {
-		if (this.root == null) {
-			return 0;
+		int depth = 0;
+		ArrayList<TNode> level = new ArrayList<TNode>();
+		if ( this.root != null ) {
+			level.add( this.root );
 		}
-		return this.root.getDepth( 0 );
+		while ( !level.isEmpty() ) {
+			depth++;
+			ArrayList<TNode> next = new ArrayList<TNode>();
+			for ( TNode node: level ) {
+				if ( node.left != null ) {
+					next.add( node.left );
+				}
+				if ( node.right != null ) {
+					next.add( node.right );
+				}
+			}
+			level = next;
+		}
+		return depth;
 	}
     
 	
@@ -121,156 +515,44 @@ public class BSTMap<K, V> implements MapSet<K, V> {
 			this.data = new KeyValuePair<K, V>( k, v );
 		}
 		
-		// Takes in a key, a value, and a comparator and inserts the TNode
-        // Returns the old value of the node, if replaced, or null if inserted
-		public V put( K key, V value, Comparator<K> comp ) {
-			int c = comp.compare( key, this.data.getKey() );
-			
-			// If this node contains the key
-			if (c == 0) {
-				this.data.setValue( value );
-				return value;
-			}
-			// If the key is to the left
-			if ( c < 0 ) {
-				//If there is a left node
-				if ( this.left != null ) {
-					return this.left.put( key, value, comp );
-				} else {
-					this.left = new TNode( key, value );
-					return null;
-				}
-			}
-			// If the key is to the right
-			if ( c > 0 ) {
-				//If there is a right node
-				if ( this.right != null ) {
-					return this.right.put( key, value, comp );
-				} else {
-					this.right = new TNode( key, value );
-					return null;
-				}
-			}
-			
-			return null;
-		}
-		
-		// Takes in a key and a comparator
-        // Returns the value associated with the key or null
-		public V get( K key, Comparator<K> comp ) {
-			int c = comp.compare( key, this.data.getKey() );
-			
-			// If this node contains the key
-			if (c == 0) {
-				return this.data.getValue();
-			}
-			// If the key is to the left and a left node exists
-			else if ( c < 0 && this.left != null ) {
-				return this.left.get( key,  comp );
-			}
-			// If the key is to the right and a right node exists
-			else if ( c > 0 && this.right != null ) {
-				return this.right.get( key, comp );
-			}
-			
-			return null;
-		}
-		
-		// Returns true if this subtree contains a key-value pair with the given key
-		public boolean containsKey( K key, Comparator<K> comp ) {
-			int c = comp.compare( key, this.data.getKey() );
-			
-			if ( c == 0 ) {
-				return true;
-			}
-			if ( c < 0 && this.left != null ) {
-				return this.left.containsKey( key, comp );
-			}
-			if ( c > 0 && this.right != null ) {
-				return this.right.containsKey( key, comp );
-			}
-			return false;
-		}
-		
-		// Returns an ArrayList of all the keys in the map.
-		// Uses pre-order traversal
-		public void keySet( ArrayList<K> keys ) {
-			keys.add( this.data.getKey() );
-			
-			if ( this.left != null ) {
-				this.left.keySet( keys );
-			}
-			if ( this.right != null ) {
-				this.right.keySet( keys );
-			}
-		}
+	} //end TNode class
+	
+	// Private inner class that walks the tree in pre-order
+	// It keeps the nodes still to visit on its own stack
+	private class PreOrderIterator implements Iterator<KeyValuePair<K, V>> {
+		//Fields
+		private ArrayList<TNode> stack;
 		
-		// Returns an ArrayList of all the values in the map in the same order as keySet
-		public void values( ArrayList<V> vals ) {
-			vals.add( this.data.getValue() );
-			
-			if ( this.left != null ) {
-				this.left.values( vals );
-			}
-			if ( this.right != null ) {
-				this.right.values( vals );
+		//Constructor
+		public PreOrderIterator() {
+			this.stack = new ArrayList<TNode>();
+			if ( root != null ) {
+				this.stack.add( root );
 			}
 		}
 		
-		// Returns an ArrayList of all the key-value pairs
-		// Uses pre-order traversal
-		public void entrySet( ArrayList<KeyValuePair<K, V>> pairs ) {
-			pairs.add( this.data );
-		
-			if ( this.left != null ) {
-				this.left.entrySet( pairs );
-			}
-			if ( this.right != null ) {
-				this.right.entrySet( pairs );
-			}
+		public boolean hasNext() {
+			return !this.stack.isEmpty();
 		}
 		
-		// Return the maximum depth of the tree
-		public int getDepth( int curDepth ) {
-			curDepth++; // Increment the current depth counter
-			
-			// If we reached the bottom of the tree
-			if ( this.left == null && this.right == null ) {
-				return curDepth;
+		// Visit the top node, then push its children, right first so the
+		// left subtree comes next
+		public KeyValuePair<K, V> next() {
+			if ( this.stack.isEmpty() ) {
+				throw new NoSuchElementException();
 			}
-			
-			int lDep = 0;
-			int rDep = 0;
-			
-			// Get the depth of each child branch
-			if ( this.left != null ) {
-				lDep = this.left.getDepth( curDepth );
-			}
-			if ( this.right != null ) {
-				rDep = this.right.getDepth( curDepth );
-			}
-			
-			// Return the larger depth
-			if ( rDep > lDep ) {
-				return rDep;
-			}
-			return lDep;
-		}
-		
-		// Build a representation of the tree as a string
-		public String treeString( String indent ) {
-			String str = indent + this.data + "\n";
-			if ( this.left != null ) {
-				str += "left: " + this.left.treeString( indent + "    " );
+			TNode node = this.stack.remove( this.stack.size() - 1 );
+			if ( node.right != null ) {
+				this.stack.add( node.right );
 			}
-			if ( this.right != null ) {
-				str += "right:" + this.right.treeString( indent + "    " );
+			if ( node.left != null ) {
+				this.stack.add( node.left );
 			}
-			return str;
+			return node.data;
 		}
 		
-		
-	} //end TNode class
+	} //end PreOrderIterator class
+	
 	
 	// test function
     public static void main( String[] argv ) {
@@ -0,0 +1,78 @@
+/*
+ * Name: BSTMapBenchmark.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Times BSTMap on sorted input, which builds a tree that is a single chain
+// as deep as the number of keys. Every operation below used to recurse once
+// per level and overflowed the stack long before a million keys.
+// Usage: java BSTMapBenchmark [number of keys]
+public class BSTMapBenchmark {
+
+	// Build a key that sorts in the same order as its number
+	private static String key( int i ) {
+		String digits = Integer.toString( i );
+		while ( digits.length() < 8 ) {
+			digits = "0" + digits;
+		}
+		return "w" + digits;
+	}
+
+	// Print how long a step took since beginTime
+	private static void report( String step, long beginTime ) {
+		System.out.println( step + ": " + (System.nanoTime() - beginTime) / 1000000 + " ms" );
+	}
+
+	public static void main( String[] args ) {
+		int numKeys = 1000000;
+		if ( args.length > 0 ) {
+			numKeys = Integer.parseInt( args[0] );
+		}
+
+		// Make the keys up front so only the map is timed
+		String[] keys = new String[numKeys];
+		for ( int i = 0; i < numKeys; i++ ) {
+			keys[i] = key( i );
+		}
+
+		BSTMap<String, Integer> bst = new BSTMap<String, Integer>( new StringAscending() );
+
+		long beginTime = System.nanoTime();
+		for ( int i = 0; i < numKeys; i++ ) {
+			bst.put( keys[i], i );
+		}
+		report( "put " + numKeys + " sorted keys", beginTime );
+
+		beginTime = System.nanoTime();
+		int depth = bst.getDepth();
+		report( "getDepth = " + depth, beginTime );
+
+		beginTime = System.nanoTime();
+		Integer last = bst.get( keys[numKeys - 1] );
+		report( "get deepest key = " + last, beginTime );
+
+		// "x" sorts after every key, so the miss walks the whole right spine
+		beginTime = System.nanoTime();
+		boolean found = bst.containsKey( "x" );
+		report( "containsKey missing key = " + found, beginTime );
+
+		beginTime = System.nanoTime();
+		int numPairs = bst.entrySet().size();
+		report( "entrySet size = " + numPairs, beginTime );
+
+		beginTime = System.nanoTime();
+		int numKeysFound = bst.keySet().size();
+		report( "keySet size = " + numKeysFound, beginTime );
+
+		beginTime = System.nanoTime();
+		int numValues = bst.values().size();
+		report( "values size = " + numValues, beginTime );
+
+		// Updating an existing key still has to walk down the chain
+		beginTime = System.nanoTime();
+		bst.merge( keys[numKeys / 2], 1, Integer::sum );
+		report( "merge middle key", beginTime );
+	}
+
+}
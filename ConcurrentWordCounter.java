@@ -0,0 +1,236 @@
+/*
+ * Name: ConcurrentWordCounter.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Word counter that any number of threads can feed at once.
+// Each word maps to a WordCell. A cell starts as a single counter updated
+// with compare-and-set. The first time two threads collide on it, the cell
+// switches to a LongAdder, which spreads updates over several cache lines.
+// Only the few very common words ever collide, so rare words stay small.
+// The total word count is a LongAdder as well.
+//
+// Counts read while threads are still counting may be slightly behind.
+// Once every analyze call has returned, getCount, getFrequency and
+// getTotalWordCount are exact.
+public class ConcurrentWordCounter {
+	//Fields
+	private StripedHashmap<String, WordCell> map;
+	private LongAdder totalWords;
+
+	//Constructor
+	public ConcurrentWordCounter() {
+		this.map = new StripedHashmap<String, WordCell>( 262144, 64 );
+		this.totalWords = new LongAdder();
+	}
+
+	// Process the contents of a word file, update the map
+	// Safe to call from several threads at once
+	public void analyze( String filename ) {
+		try {
+			Tokenizer tokens = new Tokenizer( new FileReader(filename) );
+
+			while ( tokens.next() ) {
+				this.addWord( tokens.token() );
+			}
+
+			tokens.close();
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+	}
+
+	// Process a word file using several threads that all count into this map
+	// The file is memory-mapped and cut into chunks that end between words.
+	public void analyzeParallel( String filename, int numThreads ) {
+		ExecutorService pool = Executors.newFixedThreadPool( numThreads );
+		try ( RandomAccessFile file = new RandomAccessFile( filename, "r" ) ) {
+			// Count each chunk on the pool
+			ArrayList<Future<?>> parts = new ArrayList<Future<?>>();
+			for ( ByteBuffer chunk: WordCounter.mapChunks( file.getChannel(), numThreads ) ) {
+				parts.add( pool.submit( () -> {
+					Tokenizer tokens = new Tokenizer( chunk );
+					while ( tokens.next() ) {
+						this.addWord( tokens.token() );
+					}
+					return null;
+				} ) );
+			}
+
+			// Wait for every chunk to finish
+			for ( Future<?> part: parts ) {
+				part.get();
+			}
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+		catch(InterruptedException ex) {
+		  System.out.println("interrupted while reading file " + filename);
+		}
+		catch(ExecutionException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	// Analyze many files at once, all counted into this map
+	public void analyzeAll( String[] filenames, int numThreads ) {
+		ExecutorService pool = Executors.newFixedThreadPool( numThreads );
+		ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+		for ( String filename: filenames ) {
+			results.add( pool.submit( () -> this.analyze( filename ) ) );
+		}
+		try {
+			for ( Future<?> result: results ) {
+				result.get();
+			}
+		}
+		catch(InterruptedException ex) {
+		  System.out.println("interrupted while analyzing files");
+		}
+		catch(ExecutionException ex) {
+		  System.out.println("error analyzing files: " + ex.getCause());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	// Count one instance of a word
+	public void addWord( String word ) {
+		// Most words are already in the map, and get does not lock
+		WordCell cell = this.map.get( word );
+		if ( cell == null ) {
+			// Keep whichever cell got into the map first
+			cell = this.map.merge( word, new WordCell(), (old, fresh) -> old );
+		}
+		cell.increment();
+		this.totalWords.increment();
+	}
+
+	// Return the total number of words counted
+	public long getTotalWordCount() {
+		return this.totalWords.sum();
+	}
+
+	// Return the number of times a specific word appears, or 0
+	public long getCount( String word ) {
+		WordCell cell = this.map.get( word );
+		if ( cell == null ) {
+			return 0;
+		}
+		return cell.sum();
+	}
+
+	// Return the frequency of a word presence in the documents
+	public double getFrequency( String word ) {
+		return (double)(this.getCount( word )) / this.getTotalWordCount();
+	}
+
+	// Get the number of unique words (the size of the map)
+	public int getUniqueWords() {
+		return this.map.size();
+	}
+
+	// Return a copy of every word and its count
+	// MapSet pairs hold int counts, so a count past 2^31 throws
+	// ArithmeticException instead of wrapping
+	public ArrayList<KeyValuePair<String, Integer>> entrySet() {
+		ArrayList<KeyValuePair<String, Integer>> pairs = new ArrayList<KeyValuePair<String, Integer>>();
+		this.map.forEach( (word, cell) -> pairs.add( new KeyValuePair<String, Integer>( word, Math.toIntExact( cell.sum() ) ) ) );
+		return pairs;
+	}
+
+	// Erase the existing map. Must not run while words are being counted
+	public void clear() {
+		this.map.clear();
+		this.totalWords.reset();
+	}
+
+
+	// Count for one word. Starts as a plain CAS counter and grows a
+	// LongAdder the first time two threads update it at the same moment
+	private static class WordCell {
+		private static final AtomicLongFieldUpdater<WordCell> BASE =
+			AtomicLongFieldUpdater.newUpdater( WordCell.class, "base" );
+		private static final AtomicReferenceFieldUpdater<WordCell, LongAdder> ADDER =
+			AtomicReferenceFieldUpdater.newUpdater( WordCell.class, LongAdder.class, "adder" );
+
+		//Fields
+		private volatile long base;
+		private volatile LongAdder adder;
+
+		// Add one to the count
+		public void increment() {
+			LongAdder striped = this.adder;
+			if ( striped == null ) {
+				long old = this.base;
+				if ( BASE.compareAndSet( this, old, old + 1 ) ) {
+					return;
+				}
+				// Lost a race, so this word is hot. Switch to striped cells
+				ADDER.compareAndSet( this, null, new LongAdder() );
+				striped = this.adder;
+			}
+			striped.increment();
+		}
+
+		// Return the count
+		public long sum() {
+			LongAdder striped = this.adder;
+			if ( striped == null ) {
+				return this.base;
+			}
+			return this.base + striped.sum();
+		}
+	}
+
+	// Test function
+	// Usage: java ConcurrentWordCounter <threads> file1 file2 ...
+	public static void main( String[] args ) {
+		int numThreads = Integer.parseInt( args[0] );
+		String[] filenames = new String[args.length - 1];
+		System.arraycopy( args, 1, filenames, 0, filenames.length );
+
+		ConcurrentWordCounter counter = new ConcurrentWordCounter();
+		long beginTime = System.currentTimeMillis();
+		if ( filenames.length == 1 ) {
+			counter.analyzeParallel( filenames[0], numThreads );
+		} else {
+			counter.analyzeAll( filenames, numThreads );
+		}
+		double time = (System.currentTimeMillis() - beginTime) / 1000.0;
+
+		System.out.println( "time, unique words, total words" );
+		System.out.println( time + "," + counter.getUniqueWords() + "," + counter.getTotalWordCount() );
+		System.out.println( "the: " + counter.getCount( "the" ) + " " + counter.getFrequency( "the" ) );
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Name: CorpusGenerator.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+
+// Writes synthetic comment files for load tests in place of the reddit
+// dumps. Word ranks follow a Zipf distribution over a fixed vocabulary, so
+// a few words are very common and most are rare, as in real text.
+// The vocabulary mixes plain words, contractions such as "xyz't" and
+// numbers. Every word is made only of the characters Tokenizer.isWordChar
+// accepts, and the first word of each line is capitalized and lines end in
+// punctuation, so analyze has separators and case to deal with.
+// The output depends only on the settings and the seed. The vocabulary is
+// shared by every file, and each file draws its words from its own stream
+// seeded by the year, so any one file can be made again by itself.
+// Files are named reddit_comments_<year>.txt, which WordCounter.main reads
+// the year from. Keep the output directory free of '_' and '.' so the
+// year is still the third part of the name.
+// Usage: java CorpusGenerator [-size bytes[K|M|G]] [-vocab n] [-exponent s]
+//        [-line words] [-apostrophes fraction] [-digits fraction]
+//        [-seed n] [-dir directory] years...
+public class CorpusGenerator {
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final String[] SUFFIXES = { "t", "s", "re", "ll", "ve", "d", "m" };
+
+	//Fields
+	private byte[][] vocabulary;
+	private double[] cdf;
+	private int lineLength;
+	private long seed;
+
+	//Constructor
+	// vocabSize distinct words, the rank r word used in proportion to
+	// 1 / r^exponent, lineLength words per line on average, and the given
+	// fractions of the vocabulary being contractions and numbers
+	public CorpusGenerator( int vocabSize, double exponent, int lineLength, double apostrophes, double digits, long seed ) {
+		// A line draws between 1 and 2 * lineLength - 1 words
+		if ( lineLength < 1 ) {
+			throw new IllegalArgumentException( "line length must be at least 1" );
+		}
+		this.lineLength = lineLength;
+		this.seed = seed;
+		this.vocabulary = makeVocabulary( vocabSize, apostrophes, digits, new SplittableRandom( seed ) );
+
+		// The cumulative weights of each rank, for drawing ranks
+		this.cdf = new double[vocabSize];
+		double total = 0;
+		for ( int i = 0; i < vocabSize; i++ ) {
+			total += 1.0 / Math.pow( i + 1, exponent );
+			this.cdf[i] = total;
+		}
+		for ( int i = 0; i < vocabSize; i++ ) {
+			this.cdf[i] /= total;
+		}
+	}
+
+	// Make vocabSize distinct words, shortest first, so the most common
+	// words are short ones like in real text
+	private static byte[][] makeVocabulary( int vocabSize, double apostrophes, double digits, SplittableRandom random ) {
+		HashSet<String> seen = new HashSet<String>();
+		String[] words = new String[vocabSize];
+		int count = 0;
+		while ( count < vocabSize ) {
+			String word;
+			double kind = random.nextDouble();
+			if ( kind < digits ) {
+				word = randomString( random, "0123456789", 1 + random.nextInt( 6 ) );
+			} else if ( kind < digits + apostrophes ) {
+				word = randomLetters( random ) + "'" + SUFFIXES[random.nextInt( SUFFIXES.length )];
+			} else {
+				word = randomLetters( random );
+			}
+			if ( seen.add( word ) ) {
+				words[count++] = word;
+			}
+		}
+		// Stable, so words of the same length keep their random order
+		Arrays.sort( words, Comparator.comparingInt( String::length ) );
+
+		byte[][] vocabulary = new byte[vocabSize][];
+		for ( int i = 0; i < vocabSize; i++ ) {
+			vocabulary[i] = words[i].getBytes( StandardCharsets.US_ASCII );
+		}
+		return vocabulary;
+	}
+
+	// Return a lowercase word of 1 to 12 letters, mostly 3 to 8
+	private static String randomLetters( SplittableRandom random ) {
+		int length = 1 + random.nextInt( 4 ) + random.nextInt( 4 ) + random.nextInt( 5 );
+		return randomString( random, "abcdefghijklmnopqrstuvwxyz", length );
+	}
+
+	// Return length characters picked from chars
+	private static String randomString( SplittableRandom random, String chars, int length ) {
+		StringBuilder word = new StringBuilder( length );
+		for ( int i = 0; i < length; i++ ) {
+			word.append( chars.charAt( random.nextInt( chars.length() ) ) );
+		}
+		return word.toString();
+	}
+
+	// Return the rank of a word drawn from the Zipf distribution
+	private int drawRank( SplittableRandom random ) {
+		double p = random.nextDouble();
+		int low = 0;
+		int high = this.cdf.length - 1;
+		while ( low < high ) {
+			int mid = (low + high) >>> 1;
+			if ( this.cdf[mid] < p ) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// Return the name of the file for a year, in the current directory if
+	// dir is empty
+	public static String filename( String dir, int year ) {
+		String name = "reddit_comments_" + year + ".txt";
+		if ( dir.isEmpty() ) {
+			return name;
+		}
+		return dir + "/" + name;
+	}
+
+	// Write lines for the given year until at least size bytes are written
+	// Returns the number of words written
+	public long write( OutputStream out, int year, long size ) throws IOException {
+		SplittableRandom random = new SplittableRandom( this.seed * 31 + year );
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int pos = 0;
+		long written = 0;
+		long numWords = 0;
+
+		while ( written < size ) {
+			// Between 1 and 2 * lineLength - 1 words, lineLength on average
+			int wordsInLine = 1 + random.nextInt( 2 * this.lineLength - 1 );
+			for ( int i = 0; i < wordsInLine; i++ ) {
+				byte[] word = this.vocabulary[this.drawRank( random )];
+
+				// A word, its separator and the line ending always fit
+				if ( pos + word.length + 3 > buffer.length ) {
+					out.write( buffer, 0, pos );
+					written += pos;
+					pos = 0;
+				}
+				System.arraycopy( word, 0, buffer, pos, word.length );
+				if ( i == 0 && buffer[pos] >= 'a' && buffer[pos] <= 'z' ) {
+					buffer[pos] -= 'a' - 'A';
+				}
+				pos += word.length;
+				numWords++;
+
+				if ( i + 1 < wordsInLine ) {
+					if ( random.nextInt( 8 ) == 0 ) {
+						buffer[pos++] = ',';
+					}
+					buffer[pos++] = ' ';
+				}
+			}
+			buffer[pos++] = random.nextInt( 4 ) == 0 ? (byte)'?' : (byte)'.';
+			buffer[pos++] = '\n';
+			if ( written + pos >= size ) {
+				break;
+			}
+		}
+		out.write( buffer, 0, pos );
+		return numWords;
+	}
+
+	// Parse a size such as 1048576, 512K, 1M or 50G
+	private static long parseSize( String size ) {
+		char unit = Character.toUpperCase( size.charAt( size.length() - 1 ) );
+		long multiplier = 1;
+		if ( unit == 'K' ) {
+			multiplier = 1L << 10;
+		} else if ( unit == 'M' ) {
+			multiplier = 1L << 20;
+		} else if ( unit == 'G' ) {
+			multiplier = 1L << 30;
+		}
+		if ( multiplier > 1 ) {
+			size = size.substring( 0, size.length() - 1 );
+		}
+		return Long.parseLong( size ) * multiplier;
+	}
+
+	public static void main( String[] args ) {
+		long size = 1L << 20;
+		int vocabSize = 100000;
+		double exponent = 1.0;
+		int lineLength = 12;
+		double apostrophes = 0.05;
+		double digits = 0.02;
+		long seed = 42;
+		String dir = "";
+		ArrayList<Integer> years = new ArrayList<Integer>();
+
+		for ( int i = 0; i < args.length; i++ ) {
+			if ( args[i].equals( "-size" ) ) {
+				size = parseSize( args[++i] );
+			} else if ( args[i].equals( "-vocab" ) ) {
+				vocabSize = Integer.parseInt( args[++i] );
+			} else if ( args[i].equals( "-exponent" ) ) {
+				exponent = Double.parseDouble( args[++i] );
+			} else if ( args[i].equals( "-line" ) ) {
+				lineLength = Integer.parseInt( args[++i] );
+			} else if ( args[i].equals( "-apostrophes" ) ) {
+				apostrophes = Double.parseDouble( args[++i] );
+			} else if ( args[i].equals( "-digits" ) ) {
+				digits = Double.parseDouble( args[++i] );
+			} else if ( args[i].equals( "-seed" ) ) {
+				seed = Long.parseLong( args[++i] );
+			} else if ( args[i].equals( "-dir" ) ) {
+				dir = args[++i];
+			} else {
+				years.add( Integer.parseInt( args[i] ) );
+			}
+		}
+		if ( years.isEmpty() ) {
+			years.add( 2008 );
+		}
+		if ( lineLength < 1 ) {
+			System.out.println( "line length must be at least 1" );
+			return;
+		}
+
+		CorpusGenerator generator = new CorpusGenerator( vocabSize, exponent, lineLength, apostrophes, digits, seed );
+		for ( int year: years ) {
+			String filename = filename( dir, year );
+			try {
+				FileOutputStream out = new FileOutputStream( filename );
+				try {
+					long numWords = generator.write( out, year, size );
+					System.out.println( filename + "," + numWords );
+				}
+				finally {
+					out.close();
+				}
+			}
+			catch(FileNotFoundException ex) {
+				System.out.println("unable to open file " + filename );
+			}
+			catch(IOException ex) {
+				System.out.println("error writing file " + filename);
+			}
+		}
+	}
+
+}
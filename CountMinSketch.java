@@ -0,0 +1,147 @@
+/*
+ * Name: CountMinSketch.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Fixed-size table of counters that estimates how often each word was
+// added, without storing the words. There are depth rows of width
+// counters. A word adds to one counter in every row, and its estimate is
+// the smallest of those counters.
+//
+// Error bounds, with N the total of all counts added:
+//   - an estimate is never below the true count
+//   - with width = ceil(e / epsilon) and depth = ceil(ln(1 / delta)),
+//     an estimate is more than epsilon * N above the true count with
+//     probability at most delta
+// With conservative update on, a word only raises the counters that are
+// at its current minimum. The bounds still hold, and the overestimates
+// for rare words are usually much smaller.
+public class CountMinSketch {
+	//Fields
+	private int width;
+	private int depth;
+	private long[] table;
+	private boolean conservative;
+	private long total;
+
+	//Constructor
+	public CountMinSketch( int width, int depth, boolean conservative ) {
+		this.width = width;
+		this.depth = depth;
+		this.table = new long[width * depth];
+		this.conservative = conservative;
+		this.total = 0;
+	}
+
+	// Build a sketch sized for the given error rate and failure probability
+	public static CountMinSketch forError( double epsilon, double delta, boolean conservative ) {
+		int width = (int)Math.ceil( Math.E / epsilon );
+		int depth = (int)Math.ceil( Math.log( 1 / delta ) );
+		return new CountMinSketch( width, Math.max( 1, depth ), conservative );
+	}
+
+	// Return the index in table of the word's counter in a row
+	// The row hashes are h1 + row * h2, from the two halves of one 64-bit hash
+	private int slot( long hash, int row ) {
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32) | 1;
+		int h = h1 + row * h2;
+		return row * this.width + (h & 0x7fffffff) % this.width;
+	}
+
+	// Add delta to the word's count
+	// Returns the word's new estimated count
+	public long add( String word, long delta ) {
+		long hash = WordHash.hash64( word );
+		this.total += delta;
+
+		// Plain update raises every row
+		if ( !this.conservative ) {
+			long estimate = Long.MAX_VALUE;
+			for ( int row = 0; row < this.depth; row++ ) {
+				int slot = this.slot( hash, row );
+				this.table[slot] += delta;
+				estimate = Math.min( estimate, this.table[slot] );
+			}
+			return estimate;
+		}
+
+		// Conservative update only raises counters up to the new estimate
+		long estimate = this.estimate( hash ) + delta;
+		for ( int row = 0; row < this.depth; row++ ) {
+			int slot = this.slot( hash, row );
+			if ( this.table[slot] < estimate ) {
+				this.table[slot] = estimate;
+			}
+		}
+		return estimate;
+	}
+
+	// Return the estimated count of a word
+	public long estimate( String word ) {
+		return this.estimate( WordHash.hash64( word ) );
+	}
+
+	// Return the smallest counter for the hash across all rows
+	private long estimate( long hash ) {
+		long estimate = Long.MAX_VALUE;
+		for ( int row = 0; row < this.depth; row++ ) {
+			estimate = Math.min( estimate, this.table[this.slot( hash, row )] );
+		}
+		return estimate;
+	}
+
+	// Return the amount an estimate can be too high by, with probability
+	// at least 1 - e^-depth
+	public double getErrorBound() {
+		return Math.E / this.width * this.total;
+	}
+
+	// Return the total of every count added
+	public long getTotal() {
+		return this.total;
+	}
+
+	// Return the number of bytes used by the counters
+	public long getMemoryBytes() {
+		return 8L * this.table.length;
+	}
+
+	// Add the counts of another sketch with the same width and depth
+	// A sketch merged this way keeps the plain error bound
+	public void merge( CountMinSketch other ) {
+		if ( other.width != this.width || other.depth != this.depth ) {
+			throw new IllegalArgumentException( "sketch sizes do not match" );
+		}
+		for ( int i = 0; i < this.table.length; i++ ) {
+			this.table[i] += other.table[i];
+		}
+		this.total += other.total;
+	}
+
+	// Reset every counter to zero
+	public void clear() {
+		this.table = new long[this.table.length];
+		this.total = 0;
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		CountMinSketch plain = new CountMinSketch( 64, 4, false );
+		CountMinSketch conservative = new CountMinSketch( 64, 4, true );
+		for ( int i = 0; i < 2000; i++ ) {
+			String word = "w" + (i % 200);
+			plain.add( word, 1 );
+			conservative.add( word, 1 );
+		}
+		plain.add( "the", 500 );
+		conservative.add( "the", 500 );
+
+		System.out.println( "the: " + plain.estimate( "the" ) + " " + conservative.estimate( "the" ) + " (true 500)" );
+		System.out.println( "w7: " + plain.estimate( "w7" ) + " " + conservative.estimate( "w7" ) + " (true 10)" );
+		System.out.println( "missing: " + plain.estimate( "missing" ) + " " + conservative.estimate( "missing" ) + " (true 0)" );
+		System.out.println( "error bound: " + plain.getErrorBound() );
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Name: HashStats.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// A snapshot of how a hash table is laid out and how hard it has been
+// working, for telling bad hashing apart from a bad starting size. In an
+// open addressing table each slot is a bucket holding at most one pair.
+// The running counts (lookups, probes, resizes and time spent resizing)
+// are kept by the table on every operation and cost a few additions each.
+// The bucket figures are found by walking every bucket when the snapshot
+// is taken, so take snapshots from time to time rather than per operation.
+// A probe is one key compared against the key being looked up; a lookup
+// in an empty bucket makes no probes. Lookups include puts and merges.
+public class HashStats {
+	// Buckets with this many entries or more share the last histogram bin
+	public static final int MAX_BIN = 16;
+
+	//Fields
+	private int capacity;
+	private int size;
+	private int occupied;
+	private long[] histogram;
+	private int maxChain;
+	private int maxDepth;
+	private long totalDepth;
+	private long lookups;
+	private long probes;
+	private int resizes;
+	private long resizeNanos;
+	private int collisions;
+
+	//Constructor; the buckets are added one at a time with addBucket
+	public HashStats( int size, long lookups, long probes, int resizes, long resizeNanos, int collisions ) {
+		this.capacity = 0;
+		this.size = size;
+		this.occupied = 0;
+		this.histogram = new long[MAX_BIN + 1];
+		this.maxChain = 0;
+		this.maxDepth = 0;
+		this.totalDepth = 0;
+		this.lookups = lookups;
+		this.probes = probes;
+		this.resizes = resizes;
+		this.resizeNanos = resizeNanos;
+		this.collisions = collisions;
+	}
+
+	// Count one bucket holding entries pairs, which takes up to depth
+	// probes to search: the length of a list or the height of a tree
+	public void addBucket( int entries, int depth ) {
+		this.capacity++;
+		this.histogram[Math.min( entries, MAX_BIN )]++;
+		if ( entries == 0 ) {
+			return;
+		}
+		this.occupied++;
+		this.maxChain = Math.max( this.maxChain, entries );
+		this.maxDepth = Math.max( this.maxDepth, depth );
+		this.totalDepth += depth;
+	}
+
+	// Returns the number of buckets, counting both arrays while an
+	// incremental resize is in progress
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	// Returns the number of pairs in the table
+	public int getSize() {
+		return this.size;
+	}
+
+	// Returns the number of pairs per bucket
+	public double getLoadFactor() {
+		return this.capacity == 0 ? 0 : (double)this.size / this.capacity;
+	}
+
+	// Returns the number of buckets holding at least one pair
+	public int getOccupiedBuckets() {
+		return this.occupied;
+	}
+
+	// Returns a copy of the histogram: entry i is the number of buckets
+	// holding i pairs, and the last entry counts every bucket holding
+	// MAX_BIN pairs or more
+	public long[] getHistogram() {
+		return this.histogram.clone();
+	}
+
+	// Returns the most pairs in any one bucket
+	public int getMaxChainLength() {
+		return this.maxChain;
+	}
+
+	// Returns the mean number of pairs in the occupied buckets
+	public double getMeanChainLength() {
+		return this.occupied == 0 ? 0 : (double)this.size / this.occupied;
+	}
+
+	// Returns the most probes needed to search any one bucket
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	// Returns the mean number of probes needed to search an occupied
+	// bucket all the way down
+	public double getMeanDepth() {
+		return this.occupied == 0 ? 0 : (double)this.totalDepth / this.occupied;
+	}
+
+	// Returns the number of lookups since the table was made
+	public long getLookups() {
+		return this.lookups;
+	}
+
+	// Returns the number of probes since the table was made
+	public long getProbes() {
+		return this.probes;
+	}
+
+	// Returns the mean number of probes per lookup
+	public double getMeanProbes() {
+		return this.lookups == 0 ? 0 : (double)this.probes / this.lookups;
+	}
+
+	// Returns the number of times the table has grown
+	public int getResizes() {
+		return this.resizes;
+	}
+
+	// Returns the total time spent moving pairs to bigger tables, in
+	// nanoseconds, including the steps of incremental resizes
+	public long getResizeNanos() {
+		return this.resizeNanos;
+	}
+
+	// Returns the number of pairs sharing a bucket with another pair
+	public int getCollisions() {
+		return this.collisions;
+	}
+
+	// Returns a readable summary of the snapshot
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		str.append( "size: " + this.size + ", buckets: " + this.capacity );
+		str.append( String.format( ", load factor: %.3f%n", this.getLoadFactor() ) );
+		str.append( String.format( "chain length: max %d, mean %.3f; depth: max %d, mean %.3f%n",
+			this.maxChain, this.getMeanChainLength(), this.maxDepth, this.getMeanDepth() ) );
+		str.append( String.format( "lookups: %d, mean probes: %.3f, collisions: %d%n",
+			this.lookups, this.getMeanProbes(), this.collisions ) );
+		str.append( String.format( "resizes: %d, resize time: %.3f ms%n", this.resizes, this.resizeNanos / 1e6 ) );
+		str.append( "histogram:" );
+		for ( int i = 0; i <= MAX_BIN; i++ ) {
+			if ( this.histogram[i] != 0 ) {
+				str.append( " " + i + (i == MAX_BIN ? "+" : "") + "=" + this.histogram[i] );
+			}
+		}
+		return str.toString();
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		HashmapList<String, Integer> list = new HashmapList<String, Integer>( 4, new StringAscending() );
+		Hashmap<String, Integer> tree = new Hashmap<String, Integer>( 4, new StringAscending() );
+		for ( int i = 0; i < 10000; i++ ) {
+			list.merge( "w" + (i % 3000), 1, Integer::sum );
+			tree.merge( "w" + (i % 3000), 1, Integer::sum );
+		}
+		for ( int i = 0; i < 5000; i++ ) {
+			list.get( "w" + i );
+			tree.get( "w" + i );
+		}
+		System.out.println( "HashmapList" );
+		System.out.println( list.getHashStats() );
+		System.out.println( "" );
+		System.out.println( "Hashmap" );
+		System.out.println( tree.getHashStats() );
+	}
+
+}
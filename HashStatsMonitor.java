@@ -0,0 +1,136 @@
+/*
+ * Name: HashStatsMonitor.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+// Publishes a hash table's HashStats as a JMX MBean.
+// The hash tables are not thread safe, so JMX never touches the table
+// itself. The thread that uses the table calls refresh now and then, for
+// example after each file, and JMX reads the last snapshot it took.
+public class HashStatsMonitor implements HashStatsMonitorMBean {
+	//Fields
+	private HashStatsSource source;
+	private volatile HashStats stats;
+	private volatile long snapshotTime;
+
+	//Constructor; takes the first snapshot
+	public HashStatsMonitor( HashStatsSource source ) {
+		this.source = source;
+		this.refresh();
+	}
+
+	// Take a new snapshot of the table
+	// Call this only from the thread that changes the table
+	public void refresh() {
+		this.stats = this.source.getHashStats();
+		this.snapshotTime = System.currentTimeMillis();
+	}
+
+	// Returns the most recent snapshot
+	public HashStats getStats() {
+		return this.stats;
+	}
+
+	// Register this monitor with the platform MBean server under
+	// WordCounter:type=HashStats,name=<name>
+	// Returns the name it was registered under
+	public ObjectName register( String name ) throws JMException {
+		ObjectName objectName = new ObjectName( "WordCounter:type=HashStats,name=" + ObjectName.quote( name ) );
+		ManagementFactory.getPlatformMBeanServer().registerMBean( this, objectName );
+		return objectName;
+	}
+
+	// Remove this monitor from the platform MBean server
+	public void unregister( ObjectName objectName ) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean( objectName );
+	}
+
+	public int getCapacity() {
+		return this.stats.getCapacity();
+	}
+
+	public int getSize() {
+		return this.stats.getSize();
+	}
+
+	public double getLoadFactor() {
+		return this.stats.getLoadFactor();
+	}
+
+	public int getOccupiedBuckets() {
+		return this.stats.getOccupiedBuckets();
+	}
+
+	public long[] getHistogram() {
+		return this.stats.getHistogram();
+	}
+
+	public int getMaxChainLength() {
+		return this.stats.getMaxChainLength();
+	}
+
+	public double getMeanChainLength() {
+		return this.stats.getMeanChainLength();
+	}
+
+	public int getMaxDepth() {
+		return this.stats.getMaxDepth();
+	}
+
+	public double getMeanDepth() {
+		return this.stats.getMeanDepth();
+	}
+
+	public long getLookups() {
+		return this.stats.getLookups();
+	}
+
+	public double getMeanProbes() {
+		return this.stats.getMeanProbes();
+	}
+
+	public int getResizes() {
+		return this.stats.getResizes();
+	}
+
+	public double getResizeMillis() {
+		return this.stats.getResizeNanos() / 1e6;
+	}
+
+	public int getCollisions() {
+		return this.stats.getCollisions();
+	}
+
+	public long getSnapshotTime() {
+		return this.snapshotTime;
+	}
+
+	// Testing function
+	public static void main( String[] args ) throws JMException {
+		HashmapList<String, Integer> map = new HashmapList<String, Integer>( 16, new StringAscending() );
+		HashStatsMonitor monitor = new HashStatsMonitor( map );
+		ObjectName name = monitor.register( "test" );
+
+		for ( int i = 0; i < 100000; i++ ) {
+			map.merge( "w" + (i % 20000), 1, Integer::sum );
+		}
+		monitor.refresh();
+
+		// Read the attributes back the way a JMX client would
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		System.out.println( name );
+		for ( String attribute: new String[] { "Size", "Capacity", "LoadFactor", "MaxChainLength", "MeanProbes", "Resizes", "ResizeMillis" } ) {
+			System.out.println( attribute + ": " + server.getAttribute( name, attribute ) );
+		}
+		monitor.unregister( name );
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Name: HashStatsMonitorMBean.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// The attributes HashStatsMonitor shows through JMX, such as in jconsole.
+// Each one is read from the monitor's most recent snapshot
+public interface HashStatsMonitorMBean {
+
+	public int getCapacity();
+
+	public int getSize();
+
+	public double getLoadFactor();
+
+	public int getOccupiedBuckets();
+
+	public long[] getHistogram();
+
+	public int getMaxChainLength();
+
+	public double getMeanChainLength();
+
+	public int getMaxDepth();
+
+	public double getMeanDepth();
+
+	public long getLookups();
+
+	public double getMeanProbes();
+
+	public int getResizes();
+
+	public double getResizeMillis();
+
+	public int getCollisions();
+
+	// Milliseconds since the epoch when the snapshot was taken
+	public long getSnapshotTime();
+
+}
@@ -0,0 +1,15 @@
+/*
+ * Name: HashStatsSource.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// A hash table that can describe itself with a HashStats snapshot
+public interface HashStatsSource {
+
+	// Returns a snapshot of the table's layout and running counts.
+	// Walks every bucket, so it must not run while another thread is
+	// changing the table
+	public HashStats getHashStats();
+
+}
@@ -7,23 +7,57 @@
 // Imports
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 
-public class Hashmap<K,V> implements MapSet<K,V> {
+// Incremental mode works like HashmapList's: while the table grows, the
+// old and new arrays are kept side by side and each put or merge moves
+// the key's old tree and a few more across to the new array.
+public class Hashmap<K,V> implements MapSet<K,V>, HashStatsSource {
+	// Number of non-empty old buckets moved per write while rehashing
+	private static final int REHASH_STEP = 4;
+	
 	//Fields
 	private int size;
 	private int spotsFilled;
 	private int numCollisions;
 	private Object[] array;
 	private Comparator<K> comp;
+	private boolean incremental;
+	
+	// The array being emptied, its size and the next bucket to move,
+	// while an incremental resize is in progress; oldArray is null otherwise
+	private Object[] oldArray;
+	private int oldSize;
+	private int rehashIndex;
+	
+	// Running counts for getHashStats, kept since the table was made
+	private long lookups;
+	private long probes;
+	private int resizes;
+	private long resizeNanos;
 	
 	//Constructor
 	public Hashmap( int size, Comparator<K> comp ) {
+		this( size, comp, false );
+	}
+	
+	//Constructor; if incremental is true, the table grows a few buckets at a time
+	public Hashmap( int size, Comparator<K> comp, boolean incremental ) {
 		this.size = size;
 		this.spotsFilled = 0;
 		this.numCollisions = 0;
 		this.array = new Object[size];
 		this.comp = comp;
+		this.incremental = incremental;
+		this.oldArray = null;
+		this.lookups = 0;
+		this.probes = 0;
+		this.resizes = 0;
+		this.resizeNanos = 0;
 	}
 	
 	// Generate the index for a provided key
@@ -31,12 +65,51 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		return Math.abs(key.hashCode()) % this.size;
 	}
 	
-	// Add a key-value pair to the hash table
-	public V put( K key, V value ) {
+	// Generate the index for a provided key in the array being emptied
+	private int oldHash( K key ) {
+		return Math.abs(key.hashCode()) % this.oldSize;
+	}
+	
+	// Get ready to add or update key
+	// Grows the table if it is too full. While rehashing, moves the key's
+	// old tree and a few more, so the write only touches the new array
+	private void prepareWrite( K key ) {
 		// If the table is more than 50% full, double the size of the table
 		if ( this.spotsFilled > (this.size/2) ) {
 			this.expand();
 		}
+		if ( this.oldArray != null ) {
+			long beginTime = System.nanoTime();
+			this.migrateBucket( this.oldHash( key ) );
+			this.rehashStep();
+			this.resizeNanos += System.nanoTime() - beginTime;
+		}
+	}
+	
+	// Return the tree that would hold key, or null
+	private BSTMap<K,V> bucketFor( K key ) {
+		// A key whose old tree has not been moved yet is still in it
+		if ( this.oldArray != null ) {
+			Object old = this.oldArray[this.oldHash( key )];
+			if ( old != null ) {
+				return (BSTMap<K,V>)old;
+			}
+		}
+		return (BSTMap<K,V>)this.array[this.hash( key )];
+	}
+	
+	// Count a lookup that searched map, or no tree if map is null
+	// before is the tree's comparison count from before the search
+	private void countLookup( BSTMap<K,V> map, long before ) {
+		this.lookups++;
+		if ( map != null ) {
+			this.probes += map.getComparisons() - before;
+		}
+	}
+	
+	// Add a key-value pair to the hash table
+	public V put( K key, V value ) {
+		this.prepareWrite( key );
 	
 		// Hash the index
 		int index = this.hash( key );
@@ -45,11 +118,15 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		if ( this.array[index] == null ) {
 			this.array[index] = new BSTMap<K,V>( this.comp );
 			this.spotsFilled++;
+			this.countLookup( null, 0 );
 			return ((BSTMap<K,V>)this.array[index]).put( key, value );
 		}
 		
 		// If there is a tree, add the key-value pair
-		V val = ((BSTMap<K,V>)this.array[index]).put( key, value );
+		BSTMap<K,V> map = (BSTMap<K,V>)this.array[index];
+		long before = map.getComparisons();
+		V val = map.put( key, value );
+		this.countLookup( map, before );
 		
 		// If no value was returned, then a new key was added, so a collision took place
 		if ( val == null ) {
@@ -60,98 +137,220 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		
 	}
 	
+	// Add a key-value pair, or combine it with the existing value using fn
+	// Returns the new value stored with the key
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		this.prepareWrite( key );
+		
+		// Hash the index
+		int index = this.hash( key );
+		
+		// If there is nothing at this spot, make a new binary search tree
+		if ( this.array[index] == null ) {
+			this.array[index] = new BSTMap<K,V>( this.comp );
+			this.spotsFilled++;
+			this.countLookup( null, 0 );
+			return ((BSTMap<K,V>)this.array[index]).put( key, value );
+		}
+		
+		// Let the tree find or create the pair in a single descent
+		BSTMap<K,V> map = (BSTMap<K,V>)this.array[index];
+		int oldSize = map.size();
+		long before = map.getComparisons();
+		V val = map.merge( key, value, fn );
+		this.countLookup( map, before );
+		
+		// If the tree grew, then a new key was added, so a collision took place
+		if ( map.size() > oldSize ) {
+			this.numCollisions++;
+			this.spotsFilled++;
+		}
+		return val;
+	}
+	
+	// Add every pair in the list, sizing the table for all of them first
+	// so the table is rehashed at most once instead of once per doubling
+	public void putAll( ArrayList<KeyValuePair<K,V>> pairs ) {
+		// Find the size that keeps the table at most 50% full afterwards
+		int needed = this.spotsFilled + pairs.size();
+		int newSize = this.size;
+		while ( needed > (newSize/2) ) {
+			newSize = newSize * 2;
+		}
+		if ( newSize != this.size ) {
+			this.resize( newSize );
+		}
+		
+		for ( KeyValuePair<K,V> pair: pairs ) {
+			this.put( pair.getKey(), pair.getValue() );
+		}
+	}
+	
 	// Double the size of the array, reassign the elements in the array
+	// In incremental mode, the elements are moved by later writes instead
 	private void expand() {
-		// Store old array, make new bigger array
-		Object[] oldArray = this.array;
-		this.array = new Object[this.size * 2];
+		if ( !this.incremental ) {
+			this.resize( this.size * 2 );
+			return;
+		}
 		
-		//Reset the counter for collisions and spots filled
-		//Update the available size parameter
-		this.numCollisions = 0;
-		this.spotsFilled = 0;
+		// Finish any earlier resize, then start emptying the current array
+		long beginTime = System.nanoTime();
+		this.finishRehash();
+		this.oldArray = this.array;
+		this.oldSize = this.size;
+		this.rehashIndex = 0;
 		this.size = this.size * 2;
+		this.array = new Object[this.size];
+		this.resizes++;
+		this.resizeNanos += System.nanoTime() - beginTime;
+	}
+	
+	// Move up to REHASH_STEP non-empty old buckets into the new array,
+	// looking at no more than ten times that many buckets in all
+	// Ends the resize once every old bucket has been moved
+	private void rehashStep() {
+		int moved = 0;
+		int visited = 0;
+		while ( moved < REHASH_STEP && visited < 10 * REHASH_STEP && this.rehashIndex < this.oldSize ) {
+			if ( this.oldArray[this.rehashIndex] != null ) {
+				this.migrateBucket( this.rehashIndex );
+				moved++;
+			}
+			this.rehashIndex++;
+			visited++;
+		}
+		if ( this.rehashIndex == this.oldSize ) {
+			this.oldArray = null;
+		}
+	}
+	
+	// Move every remaining old bucket into the new array
+	private void finishRehash() {
+		while ( this.oldArray != null ) {
+			this.rehashStep();
+		}
+	}
+	
+	// Split one old tree between its two places in the new array
+	private void migrateBucket( int index ) {
+		BSTMap<K,V> map = (BSTMap<K,V>)this.oldArray[index];
+		if ( map == null ) {
+			return;
+		}
+		this.oldArray[index] = null;
+		this.splitBucket( map, index, this.oldSize );
+	}
+	
+	// Put a tree from bucket index of an array of oldSize into this array,
+	// which is twice as big
+	// Every key in it goes to either index or index + oldSize, so the tree
+	// splits in two, reusing its nodes, and the pairs' cached hashes are
+	// used instead of hashing the keys again
+	private void splitBucket( BSTMap<K,V> map, int index, int oldSize ) {
+		int newSize = this.size;
+		
+		// The tree's collisions leave with it, and are counted again
+		// in the trees it splits into
+		this.numCollisions -= map.size() - 1;
+		BSTMap<K,V> high = map.split( newSize, index );
 		
-		// For each element of the array, get a list of all the keys and values
-		// In that binary search tree. Put the values in the new array
-		ArrayList<K> keys;
-		ArrayList<V> vals;
-		BSTMap<K,V> map;
-		for ( Object tree: oldArray ) {
-			// If there is no tree here, skip
-			if ( tree != null ) {
-				map = (BSTMap<K,V>)tree;
-				keys = map.keySet();
-				vals = map.values();
-				for ( int i = 0; i < keys.size(); i++ ) {
-					this.put( keys.get(i), vals.get(i) );
+		// A tree that moves whole comes back as high
+		if ( high != map ) {
+			this.array[index] = map;
+			this.numCollisions += map.size() - 1;
+		}
+		if ( high != null ) {
+			this.array[index + oldSize] = high;
+			this.numCollisions += high.size() - 1;
+		}
+	}
+	
+	// Return the arrays holding elements: the old one first while rehashing
+	private Object[][] tables() {
+		if ( this.oldArray != null ) {
+			return new Object[][] { this.oldArray, this.array };
+		}
+		return new Object[][] { this.array };
+	}
+	
+	// Move every element into a new array of the given size, which is
+	// this size times a power of two
+	// Each doubling splits every bucket in place, moving the existing
+	// pairs instead of putting copies
+	private void resize( int newSize ) {
+		long beginTime = System.nanoTime();
+		this.finishRehash();
+		if ( this.size < newSize ) {
+			this.resizes++;
+		}
+		
+		while ( this.size < newSize ) {
+			// Store old array, make new bigger array
+			Object[] oldArray = this.array;
+			int oldSize = this.size;
+			this.size = oldSize * 2;
+			this.array = new Object[this.size];
+			
+			for ( int i = 0; i < oldSize; i++ ) {
+				if ( oldArray[i] != null ) {
+					this.splitBucket( (BSTMap<K,V>)oldArray[i], i, oldSize );
 				}
 			}
 		}
+		this.resizeNanos += System.nanoTime() - beginTime;
 	}
 	
 	// Returns true if the map contains a key-value pair with the given key
     public boolean containsKey( K key ) {
-    	// Get the index for this key
-		int index = this.hash( key );
-		BSTMap<K,V> map = (BSTMap<K,V>)(this.array[index]);
+    	// Get the tree for this key
+		BSTMap<K,V> map = this.bucketFor( key );
+    	
+    	long before = map == null ? 0 : map.getComparisons();
+    	boolean found = false;
     	
     	// If there is a tree at this index
     	if ( map != null ) {
 			// Search that tree for the key
-			if ( map.containsKey( key ) ) {
-				return true;
-			}
+			found = map.containsKey( key );
     	}
-    	return false;
+    	this.countLookup( map, before );
+    	return found;
     }
     
     // Returns the value associated with the given key.
     // If that key is not in the map, then it returns null.
     public V get( K key ) {
-    	// Get the index for this key
-		int index = this.hash( key );
-		BSTMap<K,V> map = (BSTMap<K,V>)(this.array[index]);
+    	// Get the tree for this key
+		BSTMap<K,V> map = this.bucketFor( key );
+    	
+    	long before = map == null ? 0 : map.getComparisons();
+    	V val = null;
     	
     	// If there is a tree at this index
     	if ( map != null ) {
 			// If the tree contains the key, return the corresponding value
 			if ( map.containsKey( key ) ) {
-				return map.get( key );
+				val = map.get( key );
 			}
     	}
-    	return null;
+    	this.countLookup( map, before );
+    	return val;
     }
     
     // Returns an ArrayList of all the keys in the map. There is no
     // defined order for the keys.
     public ArrayList<K> keySet() {
-    	ArrayList<K> list = new ArrayList<K>();
-    	BSTMap<K,V> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (BSTMap<K,V>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			list.addAll( map.keySet() );
-    		}
-    	}
+    	ArrayList<K> list = new ArrayList<K>( this.spotsFilled );
+    	this.forEach( (key, value) -> list.add( key ) );
     	return list;
     }
     
     // Returns an ArrayList of all the values in the map. These should
     // be in the same order as the keySet.
     public ArrayList<V> values() {
-    	ArrayList<V> list = new ArrayList<V>();
-    	BSTMap<K,V> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (BSTMap<K,V>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			list.addAll( map.values() );
-    		}
-    	}
+    	ArrayList<V> list = new ArrayList<V>( this.spotsFilled );
+    	this.forEach( (key, value) -> list.add( value ) );
     	return list;
     }
     
@@ -159,19 +358,60 @@ public class Hashmap<K,V> implements MapSet<K,V> {
     // For the sake of the word-counting project, the pairs should
     // be added to the list by a pre-order traversal.
     public ArrayList<KeyValuePair<K,V>> entrySet() {
-    	ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>();
-    	BSTMap<K,V> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (BSTMap<K,V>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			list.addAll( map.entrySet() );
-    		}
+    	ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>( this.spotsFilled );
+    	for ( KeyValuePair<K,V> pair: this ) {
+    		list.add( pair );
     	}
     	return list;
     }
     
+    // Calls action on every key and value, in the same order as entrySet,
+    // without building a list of the pairs
+    public void forEach( BiConsumer<? super K, ? super V> action ) {
+    	for ( Object[] table: this.tables() ) {
+    		for ( Object tree: table ) {
+    			if ( tree != null ) {
+    				((BSTMap<K,V>)tree).forEach( action );
+    			}
+    		}
+    	}
+    }
+    
+    // Returns an iterator over the pairs, in the same order as entrySet,
+    // that walks one tree at a time
+    public Iterator<KeyValuePair<K,V>> iterator() {
+    	Object[][] tables = this.tables();
+    	return new Iterator<KeyValuePair<K,V>>() {
+    		private int table = 0;
+    		private int index = 0;
+    		private Iterator<KeyValuePair<K,V>> bucket = null;
+    		
+    		public boolean hasNext() {
+    			// Move on to the next non-empty tree if this one is done
+    			while ( this.bucket == null || !this.bucket.hasNext() ) {
+    				if ( this.index >= tables[this.table].length ) {
+    					if ( this.table + 1 >= tables.length ) {
+    						return false;
+    					}
+    					this.table++;
+    					this.index = 0;
+    					continue;
+    				}
+    				Object tree = tables[this.table][this.index++];
+    				this.bucket = tree == null ? null : ((BSTMap<K,V>)tree).iterator();
+    			}
+    			return true;
+    		}
+    		
+    		public KeyValuePair<K,V> next() {
+    			if ( !this.hasNext() ) {
+    				throw new NoSuchElementException();
+    			}
+    			return this.bucket.next();
+    		}
+    	};
+    }
+    
     // Returns the number of key-value pairs in the map.
     public int size() {
     	return this.spotsFilled;
@@ -182,6 +422,7 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		this.spotsFilled = 0;
 		this.numCollisions = 0;
 		this.array = new Object[this.size];
+		this.oldArray = null;
     }
 	
 	// Return the number of collisions
@@ -189,19 +430,37 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		return this.numCollisions;
 	}
 	
+	// Returns a snapshot of the table's layout and running counts
+	// The depth of each bucket is the height of its tree
+	public HashStats getHashStats() {
+		HashStats stats = new HashStats( this.spotsFilled, this.lookups, this.probes, this.resizes, this.resizeNanos, this.numCollisions );
+		for ( Object[] table: this.tables() ) {
+			for ( Object tree: table ) {
+				if ( tree == null ) {
+					stats.addBucket( 0, 0 );
+				} else {
+					BSTMap<K,V> map = (BSTMap<K,V>)tree;
+					stats.addBucket( map.size(), map.getDepth() );
+				}
+			}
+		}
+		return stats;
+	}
+	
 	// print the hashmap neatly
+	// While rehashing, the old array is printed before the new one
 	public String toString() {
-		BSTMap<K,V> map;
-		String str = "";
-		for ( Object tree: this.array ) {
-			if ( tree == null ) {
-				str += "null\n";
-			} else {
-				map = (BSTMap<K,V>)tree;
-				str += map.toString();
+		StringBuilder str = new StringBuilder();
+		for ( Object[] table: this.tables() ) {
+			for ( Object tree: table ) {
+				if ( tree == null ) {
+					str.append( "null\n" );
+				} else {
+					str.append( tree );
+				}
 			}
 		}
-		return str;
+		return str.toString();
 	}
 	
 	// Testing function
@@ -258,6 +517,14 @@ public class Hashmap<K,V> implements MapSet<K,V> {
 		System.out.println( hash.values() );
 		System.out.println( hash.entrySet() );
 		
+		// An incremental table keeps answering while it grows
+		Hashmap<String, Integer> grow = new Hashmap<String, Integer>( 4, new StringAscending(), true );
+		for ( int i = 0; i < 1000; i++ ) {
+			grow.merge( "w" + (i % 300), 1, Integer::sum );
+		}
+		System.out.println( "" );
+		System.out.println( "incremental size: " + grow.size() + ", w7: " + grow.get( "w7" ) + ", pairs: " + grow.entrySet().size() );
+		
 		
 	}
 	
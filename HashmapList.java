@@ -7,22 +7,73 @@
 // Imports
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 
-public class HashmapList<K,V> implements MapSet<K,V> {
+// In incremental mode, growing the table does not move every element at
+// once. Like the Redis dict, the old and new arrays are kept side by side
+// and each put or merge moves a few more buckets across, so no single
+// insert has to wait for the whole table to be rehashed.
+// - A write first moves the key's own old bucket, so the key is only ever
+//   added to the new array.
+// - A read checks the key's old bucket while it is still there, and the
+//   new array otherwise.
+// - Iteration covers the old array and then the new one.
+// With moveToFront, every key that is found is moved to the front of its
+// list, so with skewed input such as word counts the common keys sit at
+// the head of their buckets.
+public class HashmapList<K,V> implements MapSet<K,V>, HashStatsSource {
+	// Number of non-empty old buckets moved per write while rehashing
+	private static final int REHASH_STEP = 4;
+	
 	//Fields
 	private int size;
 	private int spotsFilled;
 	private int numCollisions;
 	private Object[] array;
 	private Comparator<K> comp;
+	private boolean incremental;
+	private boolean moveToFront;
+	
+	// The array being emptied, its size and the next bucket to move,
+	// while an incremental resize is in progress; oldArray is null otherwise
+	private Object[] oldArray;
+	private int oldSize;
+	private int rehashIndex;
+	
+	// Running counts for getHashStats, kept since the table was made
+	private long lookups;
+	private long probes;
+	private int resizes;
+	private long resizeNanos;
 	
 	//Constructor
 	public HashmapList( int size, Comparator<K> comp ) {
+		this( size, comp, false );
+	}
+	
+	//Constructor; if incremental is true, the table grows a few buckets at a time
+	public HashmapList( int size, Comparator<K> comp, boolean incremental ) {
+		this( size, comp, incremental, false );
+	}
+	
+	//Constructor; if moveToFront is true, keys that are found move to the
+	// front of their list
+	public HashmapList( int size, Comparator<K> comp, boolean incremental, boolean moveToFront ) {
 		this.size = size;
 		this.spotsFilled = 0;
 		this.numCollisions = 0;
 		this.array = new Object[size];
+		this.incremental = incremental;
+		this.moveToFront = moveToFront;
+		this.oldArray = null;
+		this.lookups = 0;
+		this.probes = 0;
+		this.resizes = 0;
+		this.resizeNanos = 0;
 	}
 	
 	// Generate the index for a provided key
@@ -30,12 +81,56 @@ public class HashmapList<K,V> implements MapSet<K,V> {
 		return Math.abs(key.hashCode()) % this.size;
 	}
 	
-	// Add a key-value pair to the hash table
-	public V put( K key, V value ) {
+	// Generate the index for a provided key in the array being emptied
+	private int oldHash( K key ) {
+		return Math.abs(key.hashCode()) % this.oldSize;
+	}
+	
+	// Get ready to add or update key
+	// Grows the table if it is too full. While rehashing, moves the key's
+	// old bucket and a few more, so the write only touches the new array
+	private void prepareWrite( K key ) {
 		// If the table is more than 50% full, double the size of the table
 		if ( this.spotsFilled > (this.size/2) ) {
 			this.expand();
 		}
+		if ( this.oldArray != null ) {
+			long beginTime = System.nanoTime();
+			this.migrateBucket( this.oldHash( key ) );
+			this.rehashStep();
+			this.resizeNanos += System.nanoTime() - beginTime;
+		}
+	}
+	
+	// Return the list that would hold key, or null
+	private LinkedList<KeyValuePair<K,V>> bucketFor( K key ) {
+		// A key whose old bucket has not been moved yet is still in it
+		if ( this.oldArray != null ) {
+			Object old = this.oldArray[this.oldHash( key )];
+			if ( old != null ) {
+				return (LinkedList<KeyValuePair<K,V>>)old;
+			}
+		}
+		return (LinkedList<KeyValuePair<K,V>>)this.array[this.hash( key )];
+	}
+	
+	// Count a lookup that compared the given number of keys
+	private void countLookup( int compared ) {
+		this.lookups++;
+		this.probes += compared;
+	}
+	
+	// Return the pair holding key in list, or null, in a single walk
+	// The pairs' cached hashes rule out most keys without calling equals
+	private KeyValuePair<K,V> findPair( LinkedList<KeyValuePair<K,V>> list, K key ) {
+		KeyValuePair<K,V> pair = LinkedList.findKey( list, key, key.hashCode(), this.moveToFront );
+		this.countLookup( list.getLastCompared() );
+		return pair;
+	}
+	
+	// Add a key-value pair to the hash table
+	public V put( K key, V value ) {
+		this.prepareWrite( key );
 	
 		// Hash the index
 		int index = this.hash( key );
@@ -45,125 +140,240 @@ public class HashmapList<K,V> implements MapSet<K,V> {
 			this.array[index] = new LinkedList<KeyValuePair<K,V>>();
 			this.spotsFilled++;
 			((LinkedList<KeyValuePair<K,V>>)this.array[index]).addFirst( new KeyValuePair(key, value) );
+			this.countLookup( 0 );
 			return null;
 		}
 		
 		// Get the linked list from the spot in the array
 		LinkedList<KeyValuePair<K,V>> list = (LinkedList<KeyValuePair<K,V>>)this.array[index];
-		int ind = list.containsKey( (String)key );
-		
-		V val = null;
+		KeyValuePair<K,V> pair = this.findPair( list, key );
 		
-		// If the key is already in the list, replace it
-		if ( ind >= 0 ) {
-			val = list.remove( ind ).getValue();
-			list.addFirst( new KeyValuePair<K,V>(key, value) );
+		// If the key is already in the list, replace its value in place
+		if ( pair != null ) {
+			V val = pair.getValue();
+			pair.setValue( value );
+			return val;
 		}
+		
 		// Otherwise, add a new key-value pair (collision occurs)
-		else {
-			list.addFirst( new KeyValuePair<K,V>(key, value) );
-			this.numCollisions++;
+		list.addFirst( new KeyValuePair<K,V>(key, value) );
+		this.numCollisions++;
+		this.spotsFilled++;
+		return null;
+	}
+	
+	// Add a key-value pair, or combine it with the existing value using fn
+	// Returns the new value stored with the key
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		this.prepareWrite( key );
+		
+		// Hash the index
+		int index = this.hash( key );
+		
+		// If there is nothing at this spot, make a new linked list
+		if ( this.array[index] == null ) {
+			this.array[index] = new LinkedList<KeyValuePair<K,V>>();
 			this.spotsFilled++;
+			((LinkedList<KeyValuePair<K,V>>)this.array[index]).addFirst( new KeyValuePair<K,V>(key, value) );
+			this.countLookup( 0 );
+			return value;
+		}
+		
+		// Walk the list once, updating the pair in place if the key is found
+		LinkedList<KeyValuePair<K,V>> list = (LinkedList<KeyValuePair<K,V>>)this.array[index];
+		KeyValuePair<K,V> pair = this.findPair( list, key );
+		if ( pair != null ) {
+			V newValue = fn.apply( pair.getValue(), value );
+			pair.setValue( newValue );
+			return newValue;
 		}
-		return val;
 		
+		// Otherwise, add a new key-value pair (collision occurs)
+		list.addFirst( new KeyValuePair<K,V>(key, value) );
+		this.numCollisions++;
+		this.spotsFilled++;
+		return value;
+	}
+	
+	// Add every pair in the list, sizing the table for all of them first
+	// so the table is rehashed at most once instead of once per doubling
+	public void putAll( ArrayList<KeyValuePair<K,V>> pairs ) {
+		// Find the size that keeps the table at most 50% full afterwards
+		int needed = this.spotsFilled + pairs.size();
+		int newSize = this.size;
+		while ( needed > (newSize/2) ) {
+			newSize = newSize * 2;
+		}
+		if ( newSize != this.size ) {
+			this.resize( newSize );
+		}
+		
+		for ( KeyValuePair<K,V> pair: pairs ) {
+			this.put( pair.getKey(), pair.getValue() );
+		}
 	}
 	
 	// Double the size of the array, reassign the elements in the array
+	// In incremental mode, the elements are moved by later writes instead
 	private void expand() {
-		// Store old array, make new bigger array
-		Object[] oldArray = this.array;
-		this.array = new Object[this.size * 2];
+		if ( !this.incremental ) {
+			this.resize( this.size * 2 );
+			return;
+		}
 		
-		//Reset the counter for collisions and spots filled
-		//Update the available size parameter
-		this.numCollisions = 0;
-		this.spotsFilled = 0;
+		// Finish any earlier resize, then start emptying the current array
+		long beginTime = System.nanoTime();
+		this.finishRehash();
+		this.oldArray = this.array;
+		this.oldSize = this.size;
+		this.rehashIndex = 0;
 		this.size = this.size * 2;
+		this.array = new Object[this.size];
+		this.resizes++;
+		this.resizeNanos += System.nanoTime() - beginTime;
+	}
+	
+	// Move up to REHASH_STEP non-empty old buckets into the new array,
+	// looking at no more than ten times that many buckets in all
+	// Ends the resize once every old bucket has been moved
+	private void rehashStep() {
+		int moved = 0;
+		int visited = 0;
+		while ( moved < REHASH_STEP && visited < 10 * REHASH_STEP && this.rehashIndex < this.oldSize ) {
+			if ( this.oldArray[this.rehashIndex] != null ) {
+				this.migrateBucket( this.rehashIndex );
+				moved++;
+			}
+			this.rehashIndex++;
+			visited++;
+		}
+		if ( this.rehashIndex == this.oldSize ) {
+			this.oldArray = null;
+		}
+	}
+	
+	// Move every remaining old bucket into the new array
+	private void finishRehash() {
+		while ( this.oldArray != null ) {
+			this.rehashStep();
+		}
+	}
+	
+	// Split one old bucket between its two places in the new array
+	private void migrateBucket( int index ) {
+		LinkedList<KeyValuePair<K,V>> list = (LinkedList<KeyValuePair<K,V>>)this.oldArray[index];
+		if ( list == null ) {
+			return;
+		}
+		this.oldArray[index] = null;
+		this.splitBucket( list, index, this.oldSize );
+	}
+	
+	// Put a list from bucket index of an array of oldSize into this array,
+	// which is twice as big
+	// Every key in it goes to either index or index + oldSize, since
+	// abs(h) % (2 * oldSize) is abs(h) % oldSize, plus oldSize or not.
+	// The pairs that move up are relinked into a second list, so no pair
+	// or node is copied, and the pairs' cached hashes are used instead of
+	// hashing the keys again
+	private void splitBucket( LinkedList<KeyValuePair<K,V>> list, int index, int oldSize ) {
+		int newSize = this.size;
 		
-		// For each element of the array, get a list of all the keys and values
-		// In that binary search tree. Put the values in the new array
-		ArrayList<KeyValuePair<K,V>> pairs;
-		LinkedList<KeyValuePair<K,V>> map;
-		for ( Object tree: oldArray ) {
-			// If there is no tree here, skip
-			if ( tree != null ) {
-				map = (LinkedList<KeyValuePair<K,V>>)tree;
-				pairs = map.toArrayList();
-				for ( KeyValuePair<K,V> pair: pairs ) {
-					this.put( pair.getKey(), pair.getValue() );
+		// The bucket's collisions leave with it, and are counted again
+		// in the buckets it splits into
+		this.numCollisions -= list.size() - 1;
+		LinkedList<KeyValuePair<K,V>> high = list.transferIf( pair -> Math.abs( pair.getHash() ) % newSize != index );
+		if ( list.size() > 0 ) {
+			this.array[index] = list;
+			this.numCollisions += list.size() - 1;
+		}
+		if ( high != null ) {
+			this.array[index + oldSize] = high;
+			this.numCollisions += high.size() - 1;
+		}
+	}
+	
+	// Return the arrays holding elements: the old one first while rehashing
+	private Object[][] tables() {
+		if ( this.oldArray != null ) {
+			return new Object[][] { this.oldArray, this.array };
+		}
+		return new Object[][] { this.array };
+	}
+	
+	// Move every element into a new array of the given size, which is
+	// this size times a power of two
+	// Each doubling splits every bucket in place, moving the existing
+	// pairs instead of putting copies
+	private void resize( int newSize ) {
+		long beginTime = System.nanoTime();
+		this.finishRehash();
+		if ( this.size < newSize ) {
+			this.resizes++;
+		}
+		
+		while ( this.size < newSize ) {
+			// Store old array, make new bigger array
+			Object[] oldArray = this.array;
+			int oldSize = this.size;
+			this.size = oldSize * 2;
+			this.array = new Object[this.size];
+			
+			for ( int i = 0; i < oldSize; i++ ) {
+				if ( oldArray[i] != null ) {
+					this.splitBucket( (LinkedList<KeyValuePair<K,V>>)oldArray[i], i, oldSize );
 				}
 			}
 		}
+		this.resizeNanos += System.nanoTime() - beginTime;
 	}
 	
 	// Returns true if the map contains a key-value pair with the given key
     public boolean containsKey( K key ) {
-    	// Get the index for this key
-		int index = this.hash( key );
-		LinkedList<KeyValuePair<K,V>> map = (LinkedList<KeyValuePair<K,V>>)(this.array[index]);
+    	// Get the list for this key
+		LinkedList<KeyValuePair<K,V>> map = this.bucketFor( key );
     	
-    	// If there is a tree at this index
+    	// If there is a list at this index
     	if ( map != null ) {
-			// Search that tree for the key
-			if ( map.containsKey( (String)key ) >= 0 ) {
-				return true;
-			}
+			// Search that list for the key
+			return this.findPair( map, key ) != null;
     	}
+    	this.countLookup( 0 );
     	return false;
     }
     
     // Returns the value associated with the given key.
     // If that key is not in the map, then it returns null.
     public V get( K key ) {
-    	// Get the index for this key
-		int index = this.hash( key );
-		LinkedList<KeyValuePair<K,V>> map = (LinkedList<KeyValuePair<K,V>>)(this.array[index]);
+    	// Get the list for this key
+		LinkedList<KeyValuePair<K,V>> map = this.bucketFor( key );
     	
-    	// If there is a tree at this index
+    	// If there is a list at this index
     	if ( map != null ) {
-			// If the tree contains the key, return the corresponding value
-			int ind = map.containsKey( (String)key );
-			if ( ind >= 0 ) {
-				return map.get( ind ).getValue();
+			// If the list contains the key, return the corresponding value
+			KeyValuePair<K,V> pair = this.findPair( map, key );
+			if ( pair != null ) {
+				return pair.getValue();
 			}
+			return null;
     	}
+    	this.countLookup( 0 );
     	return null;
     }
     
     // Returns an ArrayList of all the keys in the map. There is no
     // defined order for the keys.
     public ArrayList<K> keySet() {
-    	ArrayList<K> list = new ArrayList<K>();
-    	LinkedList<KeyValuePair<K,V>> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (LinkedList<KeyValuePair<K,V>>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			for ( KeyValuePair pair: map.toArrayList() ) {
-    				list.add( (K)pair.getKey() );
-    			}
-    		}
-    	}
+    	ArrayList<K> list = new ArrayList<K>( this.spotsFilled );
+    	this.forEach( (key, value) -> list.add( key ) );
     	return list;
     }
     
     // Returns an ArrayList of all the values in the map. These should
     // be in the same order as the keySet.
     public ArrayList<V> values() {
-    	ArrayList<V> list = new ArrayList<V>();
-    	LinkedList<KeyValuePair<K,V>> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (LinkedList<KeyValuePair<K,V>>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			for ( KeyValuePair pair: map.toArrayList() ) {
-    				list.add( (V)pair.getValue() );
-    			}
-    		}
-    	}
+    	ArrayList<V> list = new ArrayList<V>( this.spotsFilled );
+    	this.forEach( (key, value) -> list.add( value ) );
     	return list;
     }
     
@@ -171,19 +381,62 @@ public class HashmapList<K,V> implements MapSet<K,V> {
     // For the sake of the word-counting project, the pairs should
     // be added to the list by a pre-order traversal.
     public ArrayList<KeyValuePair<K,V>> entrySet() {
-    	ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>();
-    	LinkedList<KeyValuePair<K,V>> map;
-    	// Check each spot in array
-    	for ( Object tree: this.array ) {
-    		map = (LinkedList<KeyValuePair<K,V>>)tree;
-    		// If a tree is there
-    		if ( map != null ) {
-    			list.addAll( map.toArrayList() );
-    		}
+    	ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>( this.spotsFilled );
+    	for ( KeyValuePair<K,V> pair: this ) {
+    		list.add( pair );
     	}
     	return list;
     }
     
+    // Calls action on every key and value, in the same order as entrySet,
+    // without building a list of the pairs
+    public void forEach( BiConsumer<? super K, ? super V> action ) {
+    	for ( Object[] table: this.tables() ) {
+    		for ( Object list: table ) {
+    			if ( list != null ) {
+    				for ( KeyValuePair<K,V> pair: (LinkedList<KeyValuePair<K,V>>)list ) {
+    					action.accept( pair.getKey(), pair.getValue() );
+    				}
+    			}
+    		}
+    	}
+    }
+    
+    // Returns an iterator over the pairs, in the same order as entrySet,
+    // that walks one list at a time
+    public Iterator<KeyValuePair<K,V>> iterator() {
+    	Object[][] tables = this.tables();
+    	return new Iterator<KeyValuePair<K,V>>() {
+    		private int table = 0;
+    		private int index = 0;
+    		private Iterator<KeyValuePair<K,V>> bucket = null;
+    		
+    		public boolean hasNext() {
+    			// Move on to the next non-empty list if this one is done
+    			while ( this.bucket == null || !this.bucket.hasNext() ) {
+    				if ( this.index >= tables[this.table].length ) {
+    					if ( this.table + 1 >= tables.length ) {
+    						return false;
+    					}
+    					this.table++;
+    					this.index = 0;
+    					continue;
+    				}
+    				Object list = tables[this.table][this.index++];
+    				this.bucket = list == null ? null : ((LinkedList<KeyValuePair<K,V>>)list).iterator();
+    			}
+    			return true;
+    		}
+    		
+    		public KeyValuePair<K,V> next() {
+    			if ( !this.hasNext() ) {
+    				throw new NoSuchElementException();
+    			}
+    			return this.bucket.next();
+    		}
+    	};
+    }
+    
     // Returns the number of key-value pairs in the map.
     public int size() {
     	return this.spotsFilled;
@@ -194,6 +447,7 @@ public class HashmapList<K,V> implements MapSet<K,V> {
 		this.spotsFilled = 0;
 		this.numCollisions = 0;
 		this.array = new Object[this.size];
+		this.oldArray = null;
     }
 	
 	// Return the number of collisions
@@ -201,19 +455,37 @@ public class HashmapList<K,V> implements MapSet<K,V> {
 		return this.numCollisions;
 	}
 	
+	// Returns a snapshot of the table's layout and running counts
+	// The depth of each bucket is the length of its list
+	public HashStats getHashStats() {
+		HashStats stats = new HashStats( this.spotsFilled, this.lookups, this.probes, this.resizes, this.resizeNanos, this.numCollisions );
+		for ( Object[] table: this.tables() ) {
+			for ( Object list: table ) {
+				int length = list == null ? 0 : ((LinkedList<KeyValuePair<K,V>>)list).size();
+				stats.addBucket( length, length );
+			}
+		}
+		return stats;
+	}
+	
 	// print the hashmap neatly
+	// Each list is printed as its pairs, front to back, on one line
+	// While rehashing, the old array is printed before the new one
 	public String toString() {
-		LinkedList<KeyValuePair<K,V>> map;
-		String str = "";
-		for ( Object tree: this.array ) {
-			if ( tree == null ) {
-				str += "null\n";
-			} else {
-				map = (LinkedList<KeyValuePair<K,V>>)tree;
-				str += map.toString();
+		StringBuilder str = new StringBuilder();
+		for ( Object[] table: this.tables() ) {
+			for ( Object tree: table ) {
+				if ( tree == null ) {
+					str.append( "null\n" );
+				} else {
+					for ( KeyValuePair<K,V> pair: (LinkedList<KeyValuePair<K,V>>)tree ) {
+						str.append( pair ).append( " " );
+					}
+					str.append( "\n" );
+				}
 			}
 		}
-		return str;
+		return str.toString();
 	}
 	
 	// Testing function
@@ -270,6 +542,24 @@ public class HashmapList<K,V> implements MapSet<K,V> {
 		System.out.println( hash.values() );
 		System.out.println( hash.entrySet() );
 		
+		// An incremental table keeps answering while it grows
+		HashmapList<String, Integer> grow = new HashmapList<String, Integer>( 4, new StringAscending(), true );
+		for ( int i = 0; i < 1000; i++ ) {
+			grow.merge( "w" + (i % 300), 1, Integer::sum );
+		}
+		System.out.println( "" );
+		System.out.println( "incremental size: " + grow.size() + ", w7: " + grow.get( "w7" ) + ", pairs: " + grow.entrySet().size() );
+		
+		// With move-to-front, a key that is looked up moves to the head of
+		// its list; these keys have the same hash code, so share one list
+		HashmapList<String, Integer> front = new HashmapList<String, Integer>( 16, new StringAscending(), false, true );
+		front.put( "AaAa", 1 );
+		front.put( "AaBB", 2 );
+		front.put( "BBAa", 3 );
+		System.out.println( "" );
+		System.out.println( front.entrySet() );
+		front.merge( "AaAa", 10, Integer::sum );
+		System.out.println( front.entrySet() );
 		
 	}
 	
@@ -0,0 +1,574 @@
+/*
+ * Name: HybridHashmap.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+
+// A hash table whose buckets are short chains of nodes that turn into
+// AVLMaps when they get long, like java.util.HashMap.
+// HashmapList pays a full scan for a long chain, and Hashmap pays for a
+// whole BSTMap even in a bucket of one pair. Here a bucket starts as a
+// singly linked chain whose nodes are the pairs themselves. A chain that
+// grows past TREEIFY_THRESHOLD pairs becomes a balanced tree, so a bucket
+// that bad hashing or a hostile input piles keys into still costs
+// O(log n). When the table grows, each bucket splits in two, and a tree
+// that splits into a part of UNTREEIFY_THRESHOLD pairs or fewer turns that
+// part back into a chain. The gap between the two thresholds keeps a
+// bucket from switching back and forth.
+// The size is rounded up to a power of two. The high bits of each hash
+// code are mixed into the low bits that pick the bucket.
+public class HybridHashmap<K,V> implements MapSet<K,V>, HashStatsSource {
+	// A chain longer than this becomes a tree
+	private static final int TREEIFY_THRESHOLD = 8;
+	// A part of a split tree this short or shorter becomes a chain
+	private static final int UNTREEIFY_THRESHOLD = 6;
+	// A table smaller than this grows instead of making trees, since a long
+	// chain in a small table most likely means the table is too small
+	private static final int MIN_TREEIFY_CAPACITY = 64;
+
+	//Fields
+	private int size;
+	private int spotsFilled;
+	private int numCollisions;
+	private Object[] array;
+	private Comparator<K> comp;
+
+	// Results of the last insertion, filled in by insert
+	private V oldValue;
+	private V newValue;
+
+	// Running counts for getHashStats, kept since the table was made
+	private long lookups;
+	private long probes;
+	private int resizes;
+	private long resizeNanos;
+
+	//Constructor; the size is rounded up to the next power of two
+	// comp orders the keys of buckets that become trees
+	public HybridHashmap( int size, Comparator<K> comp ) {
+		int capacity = 2;
+		while ( capacity < size ) {
+			capacity = capacity * 2;
+		}
+		this.size = capacity;
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+		this.array = new Object[capacity];
+		this.comp = comp;
+		this.lookups = 0;
+		this.probes = 0;
+		this.resizes = 0;
+		this.resizeNanos = 0;
+	}
+
+	// A pair that is also a link in a bucket's chain
+	private static class Node<K,V> extends KeyValuePair<K,V> {
+		Node<K,V> next;
+
+		//Constructor
+		public Node( K key, V value, Node<K,V> next ) {
+			super( key, value );
+			this.next = next;
+		}
+	}
+
+	// Return a bucket that holds a chain as its first node
+	// The table is an Object array, so its buckets lose their type
+	@SuppressWarnings("unchecked")
+	private Node<K,V> chainAt( Object bucket ) {
+		return (Node<K,V>)bucket;
+	}
+
+	// Return a bucket that holds a tree as the tree
+	@SuppressWarnings("unchecked")
+	private AVLMap<K,V> treeAt( Object bucket ) {
+		return (AVLMap<K,V>)bucket;
+	}
+
+	// Mix the high bits of a hash code into the low bits
+	private static int spread( int hashCode ) {
+		return hashCode ^ (hashCode >>> 16);
+	}
+
+	// Generate the index for a hash code
+	private int index( int hashCode ) {
+		return spread( hashCode ) & (this.size - 1);
+	}
+
+	// Count a lookup that compared the given number of keys
+	private void countLookup( long compared ) {
+		this.lookups++;
+		this.probes += compared;
+	}
+
+	// Return the node holding key in the chain starting at node, or null
+	private Node<K,V> find( Node<K,V> node, K key, int hashCode ) {
+		int compared = 0;
+		while ( node != null ) {
+			compared++;
+			if ( node.getHash() == hashCode && node.getKey().equals( key ) ) {
+				break;
+			}
+			node = node.next;
+		}
+		this.countLookup( compared );
+		return node;
+	}
+
+	// Add a key-value pair to the hash table
+	// Returns the old value or null if no old value existed
+	public V put( K key, V value ) {
+		this.insert( key, value, null );
+		return this.oldValue;
+	}
+
+	// Add a key-value pair, or combine it with the existing value using fn
+	// Returns the new value stored with the key
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		this.insert( key, value, fn );
+		return this.newValue;
+	}
+
+	// Insert or update key in a single search of its bucket
+	// If fn is null the value replaces the old one, otherwise it is merged
+	private void insert( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		// If the table is more than 50% full, double the size of the table
+		if ( this.spotsFilled > (this.size/2) ) {
+			this.resize( this.size * 2 );
+		}
+
+		int hashCode = key.hashCode();
+		int index = this.index( hashCode );
+		Object bucket = this.array[index];
+
+		// Let a tree find or create the pair itself
+		if ( bucket instanceof AVLMap ) {
+			AVLMap<K,V> tree = this.treeAt( bucket );
+			int oldSize = tree.size();
+			long before = tree.getComparisons();
+			if ( fn == null ) {
+				this.oldValue = tree.put( key, value );
+				this.newValue = value;
+			} else {
+				this.oldValue = null;
+				this.newValue = tree.merge( key, value, fn );
+			}
+			this.countLookup( tree.getComparisons() - before );
+
+			// If the tree grew, then a new key was added, so a collision took place
+			if ( tree.size() > oldSize ) {
+				this.numCollisions++;
+				this.spotsFilled++;
+			}
+			return;
+		}
+
+		// Update the pair in place if the key is in the chain
+		Node<K,V> head = this.chainAt( bucket );
+		int length = 0;
+		for ( Node<K,V> node = head; node != null; node = node.next ) {
+			length++;
+			if ( node.getHash() == hashCode && node.getKey().equals( key ) ) {
+				this.countLookup( length );
+				this.oldValue = node.getValue();
+				this.newValue = fn == null ? value : fn.apply( this.oldValue, value );
+				node.setValue( this.newValue );
+				return;
+			}
+		}
+		this.countLookup( length );
+
+		// Otherwise, add a new pair to the front of the chain
+		this.oldValue = null;
+		this.newValue = value;
+		this.array[index] = new Node<K,V>( key, value, head );
+		this.spotsFilled++;
+		if ( head == null ) {
+			return;
+		}
+		this.numCollisions++;
+
+		// The chain now holds length + 1 pairs
+		if ( length + 1 > TREEIFY_THRESHOLD ) {
+			if ( this.size < MIN_TREEIFY_CAPACITY ) {
+				this.resize( this.size * 2 );
+			} else {
+				this.array[index] = this.treeify( this.chainAt( this.array[index] ) );
+			}
+		}
+	}
+
+	// Return a balanced tree holding the pairs of a chain
+	private AVLMap<K,V> treeify( Node<K,V> head ) {
+		ArrayList<KeyValuePair<K,V>> pairs = new ArrayList<KeyValuePair<K,V>>();
+		for ( Node<K,V> node = head; node != null; node = node.next ) {
+			pairs.add( node );
+		}
+		AVLMap<K,V> tree = new AVLMap<K,V>( this.comp );
+		tree.putAll( pairs );
+		return tree;
+	}
+
+	// Return a bucket holding the pairs, which have different keys: a
+	// chain if there are few enough of them, otherwise a tree
+	private Object bucketOf( ArrayList<KeyValuePair<K,V>> pairs ) {
+		if ( pairs.isEmpty() ) {
+			return null;
+		}
+		if ( pairs.size() > UNTREEIFY_THRESHOLD ) {
+			AVLMap<K,V> tree = new AVLMap<K,V>( this.comp );
+			tree.putAll( pairs );
+			return tree;
+		}
+		Node<K,V> head = null;
+		for ( int i = pairs.size() - 1; i >= 0; i-- ) {
+			KeyValuePair<K,V> pair = pairs.get(i);
+			head = new Node<K,V>( pair.getKey(), pair.getValue(), head );
+		}
+		return head;
+	}
+
+	// Add every pair in the list, sizing the table for all of them first
+	// so the table is rehashed at most once instead of once per doubling
+	public void putAll( ArrayList<KeyValuePair<K,V>> pairs ) {
+		// Find the size that keeps the table at most 50% full afterwards
+		int needed = this.spotsFilled + pairs.size();
+		int newSize = this.size;
+		while ( needed > (newSize/2) ) {
+			newSize = newSize * 2;
+		}
+		if ( newSize != this.size ) {
+			this.resize( newSize );
+		}
+
+		for ( KeyValuePair<K,V> pair: pairs ) {
+			this.put( pair.getKey(), pair.getValue() );
+		}
+	}
+
+	// Move every element into a new array of the given size, which is
+	// this size times a power of two
+	// Each doubling sends every pair in bucket i to bucket i or
+	// i + oldSize, depending on one more bit of its hash
+	private void resize( int newSize ) {
+		long beginTime = System.nanoTime();
+		if ( this.size < newSize ) {
+			this.resizes++;
+		}
+
+		while ( this.size < newSize ) {
+			// Store old array, make new bigger array
+			Object[] oldArray = this.array;
+			int oldSize = this.size;
+			this.size = oldSize * 2;
+			this.array = new Object[this.size];
+
+			for ( int i = 0; i < oldSize; i++ ) {
+				if ( oldArray[i] instanceof AVLMap ) {
+					this.splitTree( this.treeAt( oldArray[i] ), i, oldSize );
+				} else if ( oldArray[i] != null ) {
+					this.splitChain( this.chainAt( oldArray[i] ), i, oldSize );
+				}
+			}
+		}
+		this.resizeNanos += System.nanoTime() - beginTime;
+	}
+
+	// Split a chain from bucket index of an array of oldSize between
+	// index and index + oldSize, relinking the nodes in their old order
+	private void splitChain( Node<K,V> head, int index, int oldSize ) {
+		Node<K,V> lowHead = null;
+		Node<K,V> lowTail = null;
+		Node<K,V> highHead = null;
+		Node<K,V> highTail = null;
+		int lowCount = 0;
+		int highCount = 0;
+
+		Node<K,V> node = head;
+		while ( node != null ) {
+			Node<K,V> next = node.next;
+			node.next = null;
+			if ( (spread( node.getHash() ) & oldSize) == 0 ) {
+				if ( lowTail == null ) {
+					lowHead = node;
+				} else {
+					lowTail.next = node;
+				}
+				lowTail = node;
+				lowCount++;
+			} else {
+				if ( highTail == null ) {
+					highHead = node;
+				} else {
+					highTail.next = node;
+				}
+				highTail = node;
+				highCount++;
+			}
+			node = next;
+		}
+
+		this.array[index] = lowHead;
+		this.array[index + oldSize] = highHead;
+		this.recountCollisions( lowCount + highCount, lowCount, highCount );
+	}
+
+	// Split a tree from bucket index of an array of oldSize between
+	// index and index + oldSize
+	// A tree that moves whole is kept as it is; otherwise each part is
+	// rebuilt as a chain or a tree depending on its size
+	private void splitTree( AVLMap<K,V> tree, int index, int oldSize ) {
+		ArrayList<KeyValuePair<K,V>> low = new ArrayList<KeyValuePair<K,V>>();
+		ArrayList<KeyValuePair<K,V>> high = new ArrayList<KeyValuePair<K,V>>();
+		for ( KeyValuePair<K,V> pair: tree ) {
+			if ( (spread( pair.getHash() ) & oldSize) == 0 ) {
+				low.add( pair );
+			} else {
+				high.add( pair );
+			}
+		}
+
+		if ( high.isEmpty() && low.size() > UNTREEIFY_THRESHOLD ) {
+			this.array[index] = tree;
+		} else if ( low.isEmpty() && high.size() > UNTREEIFY_THRESHOLD ) {
+			this.array[index + oldSize] = tree;
+		} else {
+			this.array[index] = this.bucketOf( low );
+			this.array[index + oldSize] = this.bucketOf( high );
+		}
+		this.recountCollisions( tree.size(), low.size(), high.size() );
+	}
+
+	// A bucket of total pairs split into buckets of low and high pairs
+	// Each non-empty bucket counts all but its first pair as collisions
+	private void recountCollisions( int total, int low, int high ) {
+		this.numCollisions -= total - 1;
+		if ( low > 0 ) {
+			this.numCollisions += low - 1;
+		}
+		if ( high > 0 ) {
+			this.numCollisions += high - 1;
+		}
+	}
+
+	// Returns true if the map contains a key-value pair with the given key
+	public boolean containsKey( K key ) {
+		int hashCode = key.hashCode();
+		Object bucket = this.array[this.index( hashCode )];
+		if ( bucket instanceof AVLMap ) {
+			AVLMap<K,V> tree = this.treeAt( bucket );
+			long before = tree.getComparisons();
+			boolean found = tree.containsKey( key );
+			this.countLookup( tree.getComparisons() - before );
+			return found;
+		}
+		return this.find( this.chainAt( bucket ), key, hashCode ) != null;
+	}
+
+	// Returns the value associated with the given key.
+	// If that key is not in the map, then it returns null.
+	public V get( K key ) {
+		int hashCode = key.hashCode();
+		Object bucket = this.array[this.index( hashCode )];
+		if ( bucket instanceof AVLMap ) {
+			AVLMap<K,V> tree = this.treeAt( bucket );
+			long before = tree.getComparisons();
+			V value = tree.get( key );
+			this.countLookup( tree.getComparisons() - before );
+			return value;
+		}
+		Node<K,V> node = this.find( this.chainAt( bucket ), key, hashCode );
+		return node == null ? null : node.getValue();
+	}
+
+	// Returns an ArrayList of all the keys in the map. There is no
+	// defined order for the keys.
+	public ArrayList<K> keySet() {
+		ArrayList<K> list = new ArrayList<K>( this.spotsFilled );
+		this.forEach( (key, value) -> list.add( key ) );
+		return list;
+	}
+
+	// Returns an ArrayList of all the values in the map. These should
+	// be in the same order as the keySet.
+	public ArrayList<V> values() {
+		ArrayList<V> list = new ArrayList<V>( this.spotsFilled );
+		this.forEach( (key, value) -> list.add( value ) );
+		return list;
+	}
+
+	// return an ArrayList of pairs.
+	// The pairs are in bucket order: each chain front to back, and each
+	// tree in pre-order
+	public ArrayList<KeyValuePair<K,V>> entrySet() {
+		ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>( this.spotsFilled );
+		for ( KeyValuePair<K,V> pair: this ) {
+			list.add( pair );
+		}
+		return list;
+	}
+
+	// Calls action on every key and value, in the same order as entrySet,
+	// without building a list of the pairs
+	public void forEach( BiConsumer<? super K, ? super V> action ) {
+		for ( Object bucket: this.array ) {
+			if ( bucket instanceof AVLMap ) {
+				this.treeAt( bucket ).forEach( action );
+			} else {
+				for ( Node<K,V> node = this.chainAt( bucket ); node != null; node = node.next ) {
+					action.accept( node.getKey(), node.getValue() );
+				}
+			}
+		}
+	}
+
+	// Returns an iterator over the pairs, in the same order as entrySet
+	public Iterator<KeyValuePair<K,V>> iterator() {
+		Object[] array = this.array;
+		return new Iterator<KeyValuePair<K,V>>() {
+			private int index = 0;
+			private Node<K,V> node = null;
+			private Iterator<KeyValuePair<K,V>> tree = null;
+
+			public boolean hasNext() {
+				// Move on to the next non-empty bucket if this one is done
+				while ( this.node == null && (this.tree == null || !this.tree.hasNext()) ) {
+					if ( this.index >= array.length ) {
+						return false;
+					}
+					Object bucket = array[this.index++];
+					this.tree = null;
+					if ( bucket instanceof AVLMap ) {
+						this.tree = treeAt( bucket ).iterator();
+					} else {
+						this.node = chainAt( bucket );
+					}
+				}
+				return true;
+			}
+
+			public KeyValuePair<K,V> next() {
+				if ( !this.hasNext() ) {
+					throw new NoSuchElementException();
+				}
+				if ( this.node != null ) {
+					Node<K,V> pair = this.node;
+					this.node = pair.next;
+					return pair;
+				}
+				return this.tree.next();
+			}
+		};
+	}
+
+	// Returns the number of key-value pairs in the map.
+	public int size() {
+		return this.spotsFilled;
+	}
+
+	// removes all mappings from this MapSet
+	public void clear() {
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+		this.array = new Object[this.size];
+	}
+
+	// Return the number of collisions
+	public int getCollisions() {
+		return this.numCollisions;
+	}
+
+	// Return the number of buckets that are trees
+	public int getTreeBuckets() {
+		int trees = 0;
+		for ( Object bucket: this.array ) {
+			if ( bucket instanceof AVLMap ) {
+				trees++;
+			}
+		}
+		return trees;
+	}
+
+	// Returns a snapshot of the table's layout and running counts
+	// The depth of a bucket is the length of its chain or the height of
+	// its tree
+	public HashStats getHashStats() {
+		HashStats stats = new HashStats( this.spotsFilled, this.lookups, this.probes, this.resizes, this.resizeNanos, this.numCollisions );
+		for ( Object bucket: this.array ) {
+			if ( bucket instanceof AVLMap ) {
+				AVLMap<K,V> tree = this.treeAt( bucket );
+				stats.addBucket( tree.size(), tree.getDepth() );
+			} else {
+				int length = 0;
+				for ( Node<K,V> node = this.chainAt( bucket ); node != null; node = node.next ) {
+					length++;
+				}
+				stats.addBucket( length, length );
+			}
+		}
+		return stats;
+	}
+
+	// print the hashmap neatly
+	// Each chain is printed as its pairs, front to back, on one line
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		for ( Object bucket: this.array ) {
+			if ( bucket == null ) {
+				str.append( "null\n" );
+			} else if ( bucket instanceof AVLMap ) {
+				str.append( bucket ).append( "\n" );
+			} else {
+				for ( Node<K,V> node = this.chainAt( bucket ); node != null; node = node.next ) {
+					str.append( node ).append( node.next == null ? "\n" : " " );
+				}
+			}
+		}
+		return str.toString();
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		HybridHashmap<String, Integer> hash = new HybridHashmap<String, Integer>( 5, new StringAscending() );
+
+		hash.put( "w", 2 );
+		hash.put( "yes", 3 );
+		hash.put( "no", 4 );
+		hash.put( "w", 1 );
+		hash.put( "w", 5 );
+		hash.put( "cool", 6 );
+		hash.put( "nah", 11 );
+
+		System.out.println( hash );
+		System.out.println( "size: " + hash.size() );
+		System.out.println( "collision: " + hash.getCollisions() );
+		System.out.println( "contains what: " + hash.containsKey( "what" ) );
+		System.out.println( "contains cool: " + hash.containsKey( "cool" ) );
+		System.out.println( "what: " + hash.get( "what" ) );
+		System.out.println( "cool: " + hash.get( "cool" ) );
+		System.out.println( hash.entrySet() );
+		System.out.println( "" );
+
+		// Keys that all have hash code 0 land in one bucket, which becomes
+		// a tree instead of a chain that must be scanned
+		HybridHashmap<String, Integer> skewed = new HybridHashmap<String, Integer>( 1024, new StringAscending() );
+		String key = "";
+		for ( int i = 0; i < 200; i++ ) {
+			key = key + "\u0000";
+			skewed.merge( key, 1, Integer::sum );
+			skewed.merge( key, 1, Integer::sum );
+		}
+		System.out.println( "skewed size: " + skewed.size() + ", tree buckets: " + skewed.getTreeBuckets() );
+		System.out.println( skewed.getHashStats() );
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Name: HyperLogLog.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Estimates the number of distinct words seen, using 2^precision one-byte
+// registers no matter how many words there are. Each word's 64-bit hash
+// picks a register with its top bits. The register keeps the longest run
+// of leading zeros seen in the rest of the hash. The relative error is
+// about 1.04 / sqrt(2^precision), so the default precision of 14 uses
+// 16 KB and is typically within 1%.
+//
+// Like HyperLogLog++, this uses a 64-bit hash, so no large-range
+// correction is needed, and it switches to linear counting while many
+// registers are still empty. The sparse encoding and empirical bias
+// tables of HyperLogLog++ are left out.
+//
+// Two sketches with the same precision merge by taking the larger of each
+// pair of registers. The result is the sketch of the combined input, so
+// per-file sketches can be rolled up into years or the whole archive.
+public class HyperLogLog {
+	//Fields
+	private int precision;
+	private byte[] registers;
+
+	//Constructor; precision must be between 4 and 18
+	public HyperLogLog( int precision ) {
+		if ( precision < 4 || precision > 18 ) {
+			throw new IllegalArgumentException( "precision must be between 4 and 18" );
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	// Record one occurrence of a word
+	public void add( String word ) {
+		this.addHash( WordHash.hash64( word ) );
+	}
+
+	// Record one occurrence of the word in buffer[start] to buffer[start + length - 1]
+	public void add( char[] buffer, int start, int length ) {
+		this.addHash( WordHash.hash64( buffer, start, length ) );
+	}
+
+	// Record a 64-bit hash
+	private void addHash( long hash ) {
+		int index = (int)(hash >>> (64 - this.precision));
+		// Set a stop bit so an all-zero remainder still gives a finite run
+		long rest = (hash << this.precision) | (1L << (this.precision - 1));
+		byte rank = (byte)(Long.numberOfLeadingZeros( rest ) + 1);
+		if ( rank > this.registers[index] ) {
+			this.registers[index] = rank;
+		}
+	}
+
+	// Return the estimated number of distinct words
+	public long estimate() {
+		int m = this.registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for ( byte rank: this.registers ) {
+			sum += 1.0 / (1L << rank);
+			if ( rank == 0 ) {
+				zeros++;
+			}
+		}
+
+		double alpha;
+		if ( m == 16 ) {
+			alpha = 0.673;
+		} else if ( m == 32 ) {
+			alpha = 0.697;
+		} else if ( m == 64 ) {
+			alpha = 0.709;
+		} else {
+			alpha = 0.7213 / (1 + 1.079 / m);
+		}
+		double estimate = alpha * m * m / sum;
+
+		// Small counts are more accurate from the number of empty registers
+		if ( estimate <= 2.5 * m && zeros > 0 ) {
+			estimate = m * Math.log( (double)m / zeros );
+		}
+		return Math.round( estimate );
+	}
+
+	// Fold another sketch with the same precision into this one
+	public void merge( HyperLogLog other ) {
+		if ( other.precision != this.precision ) {
+			throw new IllegalArgumentException( "precisions do not match" );
+		}
+		for ( int i = 0; i < this.registers.length; i++ ) {
+			if ( other.registers[i] > this.registers[i] ) {
+				this.registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	// Return the precision this sketch was built with
+	public int getPrecision() {
+		return this.precision;
+	}
+
+	// Forget every word
+	public void clear() {
+		this.registers = new byte[this.registers.length];
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		HyperLogLog a = new HyperLogLog( 14 );
+		HyperLogLog b = new HyperLogLog( 14 );
+		for ( int i = 0; i < 1000000; i++ ) {
+			a.add( "w" + (i % 300000) );
+			b.add( "w" + (200000 + i % 300000) );
+		}
+		System.out.println( "a: " + a.estimate() + " (true 300000)" );
+		System.out.println( "b: " + b.estimate() + " (true 300000)" );
+		a.merge( b );
+		System.out.println( "a + b: " + a.estimate() + " (true 500000)" );
+
+		HyperLogLog small = new HyperLogLog( 14 );
+		for ( int i = 0; i < 1000; i++ ) {
+			small.add( "w" + i );
+		}
+		System.out.println( "small: " + small.estimate() + " (true 1000)" );
+	}
+
+}
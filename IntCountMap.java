@@ -0,0 +1,514 @@
+/*
+ * Name: IntCountMap.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+
+// Open addressing hash table specialized for String -> int counts.
+// Keys and counts live in parallel arrays, so there is no KeyValuePair,
+// list node or boxed Integer per word. Collisions are resolved by linear
+// probing over a power-of-two sized table.
+//
+// Words can also be looked up and counted straight from a char slice or
+// any CharSequence. The slice is hashed exactly like String.hashCode and
+// compared char by char, and a String is only made when a brand-new word
+// has to be stored.
+public class IntCountMap implements MapSet<String,Integer>, HashStatsSource {
+	//Fields
+	private String[] keys;
+	private int[] counts;
+	private int shift;
+	private int spotsFilled;
+	private int numCollisions;
+
+	// Running counts for getHashStats, kept since the table was made
+	private long lookups;
+	private long probes;
+	private int resizes;
+	private long resizeNanos;
+
+	//Constructor; the size is rounded up to the next power of two
+	public IntCountMap( int size ) {
+		int capacity = 2;
+		while ( capacity < size ) {
+			capacity = capacity * 2;
+		}
+		this.keys = new String[capacity];
+		this.counts = new int[capacity];
+		this.shift = 32 - Integer.numberOfTrailingZeros( capacity );
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+		this.lookups = 0;
+		this.probes = 0;
+		this.resizes = 0;
+		this.resizeNanos = 0;
+	}
+
+	// Generate the home index for a provided key
+	// Multiplying by the golden ratio spreads String's weak low bits
+	// across the top bits, which become the index
+	private int hash( String key ) {
+		return this.index( key.hashCode() );
+	}
+
+	// Generate the home index for a hash code already computed like String's
+	private int index( int hashCode ) {
+		return (hashCode * 0x9E3779B9) >>> this.shift;
+	}
+
+	// Return the slot holding the key, or the empty slot where it belongs
+	private int findSlot( String key ) {
+		int mask = this.keys.length - 1;
+		int index = this.hash( key );
+		String cur = this.keys[index];
+		int compared = 0;
+		while ( cur != null ) {
+			compared++;
+			if ( cur.equals( key ) ) {
+				break;
+			}
+			index = (index + 1) & mask;
+			cur = this.keys[index];
+		}
+		this.lookups++;
+		this.probes += compared;
+		return index;
+	}
+
+	// Add delta to the count for key, inserting the key if it is new
+	// Returns the new count
+	public int increment( String key, int delta ) {
+		// If the table is half full, double the size of the table
+		// This also guarantees an empty slot to end every probe
+		if ( this.spotsFilled >= (this.keys.length/2) ) {
+			this.expand();
+		}
+
+		int index = this.findSlot( key );
+
+		// If the key is new, claim the empty slot
+		if ( this.keys[index] == null ) {
+			this.keys[index] = key;
+			this.spotsFilled++;
+			if ( index != this.hash( key ) ) {
+				this.numCollisions++;
+			}
+		}
+		this.counts[index] += delta;
+		return this.counts[index];
+	}
+
+	// Return the count for key, or 0 if the key is not in the map
+	public int getCount( String key ) {
+		int index = this.findSlot( key );
+		return this.counts[index];
+	}
+
+	// Return the slot holding the chars buffer[start] to
+	// buffer[start + length - 1], or the empty slot where they belong
+	private int findSlot( char[] buffer, int start, int length, int hashCode ) {
+		int mask = this.keys.length - 1;
+		int index = this.index( hashCode );
+		String cur = this.keys[index];
+		int compared = 0;
+		while ( cur != null ) {
+			compared++;
+			// Cheap checks first: String caches its hash code
+			if ( cur.hashCode() == hashCode && cur.length() == length ) {
+				int i = 0;
+				while ( i < length && cur.charAt( i ) == buffer[start + i] ) {
+					i++;
+				}
+				if ( i == length ) {
+					break;
+				}
+			}
+			index = (index + 1) & mask;
+			cur = this.keys[index];
+		}
+		this.lookups++;
+		this.probes += compared;
+		return index;
+	}
+
+	// Hash a slice the same way String.hashCode hashes its chars
+	private static int hashCode( char[] buffer, int start, int length ) {
+		int h = 0;
+		for ( int i = start; i < start + length; i++ ) {
+			h = 31 * h + buffer[i];
+		}
+		return h;
+	}
+
+	// Add delta to the count for the word in buffer[start] to
+	// buffer[start + length - 1]. A String is only made if the word is new
+	// Returns the new count
+	public int increment( char[] buffer, int start, int length, int delta ) {
+		// If the table is half full, double the size of the table
+		// This also guarantees an empty slot to end every probe
+		if ( this.spotsFilled >= (this.keys.length/2) ) {
+			this.expand();
+		}
+
+		int hashCode = hashCode( buffer, start, length );
+		int index = this.findSlot( buffer, start, length, hashCode );
+
+		// If the word is new, store it as a String in the empty slot
+		if ( this.keys[index] == null ) {
+			this.keys[index] = new String( buffer, start, length );
+			this.spotsFilled++;
+			if ( index != this.index( hashCode ) ) {
+				this.numCollisions++;
+			}
+		}
+		this.counts[index] += delta;
+		return this.counts[index];
+	}
+
+	// Return the count for the word in buffer[start] to
+	// buffer[start + length - 1], or 0 if it is not in the map
+	public int getCount( char[] buffer, int start, int length ) {
+		int index = this.findSlot( buffer, start, length, hashCode( buffer, start, length ) );
+		return this.counts[index];
+	}
+
+	// Return the count for any sequence of chars, or 0 if it is not in the map
+	public int getCount( CharSequence key ) {
+		if ( key instanceof String ) {
+			return this.getCount( (String)key );
+		}
+
+		int length = key.length();
+		int hashCode = 0;
+		for ( int i = 0; i < length; i++ ) {
+			hashCode = 31 * hashCode + key.charAt( i );
+		}
+
+		int mask = this.keys.length - 1;
+		int index = this.index( hashCode );
+		String cur = this.keys[index];
+		this.lookups++;
+		while ( cur != null ) {
+			this.probes++;
+			if ( cur.hashCode() == hashCode && cur.contentEquals( key ) ) {
+				return this.counts[index];
+			}
+			index = (index + 1) & mask;
+			cur = this.keys[index];
+		}
+		return 0;
+	}
+
+	// Add a key-value pair to the hash table
+	// Returns the old value or null if no old value existed
+	public Integer put( String key, Integer value ) {
+		// If the table is half full, double the size of the table
+		// This also guarantees an empty slot to end every probe
+		if ( this.spotsFilled >= (this.keys.length/2) ) {
+			this.expand();
+		}
+
+		int index = this.findSlot( key );
+
+		// If the key is already in the table, replace its count
+		if ( this.keys[index] != null ) {
+			int old = this.counts[index];
+			this.counts[index] = value;
+			return old;
+		}
+
+		// Otherwise, claim the empty slot
+		this.keys[index] = key;
+		this.counts[index] = value;
+		this.spotsFilled++;
+		if ( index != this.hash( key ) ) {
+			this.numCollisions++;
+		}
+		return null;
+	}
+
+	// Add a key-value pair, or combine it with the existing value using fn
+	// Returns the new value stored with the key
+	public Integer merge( String key, Integer value, BiFunction<? super Integer, ? super Integer, ? extends Integer> fn ) {
+		// If the table is half full, double the size of the table
+		// This also guarantees an empty slot to end every probe
+		if ( this.spotsFilled >= (this.keys.length/2) ) {
+			this.expand();
+		}
+
+		int index = this.findSlot( key );
+
+		// If the key is new, claim the empty slot
+		if ( this.keys[index] == null ) {
+			this.keys[index] = key;
+			this.counts[index] = value;
+			this.spotsFilled++;
+			if ( index != this.hash( key ) ) {
+				this.numCollisions++;
+			}
+			return value;
+		}
+
+		int newValue = fn.apply( this.counts[index], value );
+		this.counts[index] = newValue;
+		return newValue;
+	}
+
+	// Add every pair in the list, sizing the arrays for all of them first
+	// so they are rehashed at most once instead of once per doubling
+	public void putAll( ArrayList<KeyValuePair<String,Integer>> pairs ) {
+		// Find the capacity that keeps the table under 50% full afterwards
+		long needed = (long)this.spotsFilled + pairs.size();
+		int capacity = this.keys.length;
+		while ( needed >= capacity/2 ) {
+			capacity = capacity * 2;
+		}
+		if ( capacity != this.keys.length ) {
+			this.resize( capacity );
+		}
+
+		for ( KeyValuePair<String,Integer> pair: pairs ) {
+			this.put( pair.getKey(), pair.getValue() );
+		}
+	}
+
+	// Double the size of the arrays, reassign the elements in the arrays
+	private void expand() {
+		this.resize( this.keys.length * 2 );
+	}
+
+	// Move every element into new arrays of the given power-of-two size
+	private void resize( int capacity ) {
+		long beginTime = System.nanoTime();
+		this.resizes++;
+
+		// Store old arrays, make new bigger arrays
+		String[] oldKeys = this.keys;
+		int[] oldCounts = this.counts;
+		this.keys = new String[capacity];
+		this.counts = new int[capacity];
+		this.shift = 32 - Integer.numberOfTrailingZeros( capacity );
+
+		//Reset the counter for collisions
+		this.numCollisions = 0;
+
+		// Move every key and count straight into its new slot
+		// The keys are all different, so the first empty slot is the one
+		int mask = capacity - 1;
+		for ( int i = 0; i < oldKeys.length; i++ ) {
+			if ( oldKeys[i] != null ) {
+				int home = this.hash( oldKeys[i] );
+				int index = home;
+				while ( this.keys[index] != null ) {
+					index = (index + 1) & mask;
+				}
+				this.keys[index] = oldKeys[i];
+				this.counts[index] = oldCounts[i];
+				if ( index != home ) {
+					this.numCollisions++;
+				}
+			}
+		}
+		this.resizeNanos += System.nanoTime() - beginTime;
+	}
+
+	// Returns true if the map contains a key-value pair with the given key
+	public boolean containsKey( String key ) {
+		return this.keys[this.findSlot( key )] != null;
+	}
+
+	// Returns the value associated with the given key.
+	// If that key is not in the map, then it returns null.
+	public Integer get( String key ) {
+		int index = this.findSlot( key );
+		if ( this.keys[index] == null ) {
+			return null;
+		}
+		return this.counts[index];
+	}
+
+	// Returns an ArrayList of all the keys in the map. There is no
+	// defined order for the keys.
+	public ArrayList<String> keySet() {
+		ArrayList<String> list = new ArrayList<String>( this.spotsFilled );
+		for ( String key: this.keys ) {
+			if ( key != null ) {
+				list.add( key );
+			}
+		}
+		return list;
+	}
+
+	// Returns an ArrayList of all the values in the map. These should
+	// be in the same order as the keySet.
+	public ArrayList<Integer> values() {
+		ArrayList<Integer> list = new ArrayList<Integer>( this.spotsFilled );
+		for ( int i = 0; i < this.keys.length; i++ ) {
+			if ( this.keys[i] != null ) {
+				list.add( this.counts[i] );
+			}
+		}
+		return list;
+	}
+
+	// return an ArrayList of pairs in table order
+	public ArrayList<KeyValuePair<String,Integer>> entrySet() {
+		ArrayList<KeyValuePair<String,Integer>> list = new ArrayList<KeyValuePair<String,Integer>>( this.spotsFilled );
+		for ( int i = 0; i < this.keys.length; i++ ) {
+			if ( this.keys[i] != null ) {
+				list.add( new KeyValuePair<String,Integer>( this.keys[i], this.counts[i] ) );
+			}
+		}
+		return list;
+	}
+
+	// Calls action on every key and count, in table order,
+	// without building a list of the pairs
+	public void forEach( BiConsumer<? super String, ? super Integer> action ) {
+		for ( int i = 0; i < this.keys.length; i++ ) {
+			if ( this.keys[i] != null ) {
+				action.accept( this.keys[i], this.counts[i] );
+			}
+		}
+	}
+
+	// Returns an iterator over the pairs in table order
+	// Each pair is made when it is reached, and setting its value does
+	// not change the map
+	public Iterator<KeyValuePair<String,Integer>> iterator() {
+		return new Iterator<KeyValuePair<String,Integer>>() {
+			private int index = this.skip( 0 );
+
+			// Return the first filled slot at or after i
+			private int skip( int i ) {
+				while ( i < keys.length && keys[i] == null ) {
+					i++;
+				}
+				return i;
+			}
+
+			public boolean hasNext() {
+				return this.index < keys.length;
+			}
+
+			public KeyValuePair<String,Integer> next() {
+				if ( this.index >= keys.length ) {
+					throw new NoSuchElementException();
+				}
+				KeyValuePair<String,Integer> pair = new KeyValuePair<String,Integer>( keys[this.index], counts[this.index] );
+				this.index = this.skip( this.index + 1 );
+				return pair;
+			}
+		};
+	}
+
+	// Returns the number of key-value pairs in the map.
+	public int size() {
+		return this.spotsFilled;
+	}
+
+	// removes all mappings from this MapSet
+	public void clear() {
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+		this.keys = new String[this.keys.length];
+		this.counts = new int[this.counts.length];
+	}
+
+	// Return the number of keys that could not be placed in their home slot
+	public int getCollisions() {
+		return this.numCollisions;
+	}
+
+	// Returns a snapshot of the table's layout and running counts
+	// Every slot is a bucket of at most one pair. The depth of a pair is
+	// how many keys a lookup of it compares: its distance from its home
+	// slot, plus one
+	public HashStats getHashStats() {
+		HashStats stats = new HashStats( this.spotsFilled, this.lookups, this.probes, this.resizes, this.resizeNanos, this.numCollisions );
+		int mask = this.keys.length - 1;
+		for ( int i = 0; i < this.keys.length; i++ ) {
+			if ( this.keys[i] == null ) {
+				stats.addBucket( 0, 0 );
+			} else {
+				stats.addBucket( 1, ((i - this.hash( this.keys[i] )) & mask) + 1 );
+			}
+		}
+		return stats;
+	}
+
+	// print the hashmap neatly
+	public String toString() {
+		String str = "";
+		for ( int i = 0; i < this.keys.length; i++ ) {
+			if ( this.keys[i] == null ) {
+				str += "null\n";
+			} else {
+				str += "(" + this.keys[i] + ", " + this.counts[i] + ")\n";
+			}
+		}
+		return str;
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		IntCountMap hash = new IntCountMap( 5 );
+
+		hash.put( "w", 2 );
+		hash.put( "yes", 3 );
+		hash.put("no", 4);
+		hash.put( "w", 1);
+		hash.put( "w", 5);
+		hash.put( "cool", 6);
+		hash.put( "nah", 11);
+
+		System.out.println( hash );
+		System.out.println( "" );
+		System.out.println( "size: " + hash.size() );
+		System.out.println( "collision: " + hash.getCollisions() );
+		System.out.println( "contains what: " + hash.containsKey( "what" ) );
+		System.out.println( "contains cool: " + hash.containsKey( "cool" ) );
+		System.out.println( "what: " + hash.get( "what"));
+		System.out.println( "cool: " + hash.get( "cool" ) );
+		System.out.println( "" );
+
+		System.out.println( hash.keySet() );
+		System.out.println( hash.values() );
+		System.out.println( hash.entrySet() );
+
+		hash.clear();
+		System.out.println( "" );
+		System.out.println( "cleared" );
+		System.out.println( "" );
+
+		hash.increment( "nah", 1 );
+		hash.increment( "nah", 1 );
+		hash.increment( "co", 6 );
+		hash.merge( "co", 1, Integer::sum );
+		hash.merge( "what", 5, Integer::sum );
+
+		System.out.println( "size: " + hash.size() );
+		System.out.println( "nah: " + hash.getCount( "nah" ) );
+		System.out.println( "co: " + hash.getCount( "co" ) );
+		System.out.println( "what: " + hash.get( "what" ) );
+		System.out.println( "missing: " + hash.getCount( "missing" ) );
+
+		char[] text = "the nah co".toCharArray();
+		hash.increment( text, 4, 3, 1 );
+		hash.increment( text, 0, 3, 1 );
+		System.out.println( "nah: " + hash.getCount( text, 4, 3 ) );
+		System.out.println( "the: " + hash.getCount( new StringBuilder( "the" ) ) );
+		System.out.println( "co: " + hash.getCount( text, 8, 2 ) );
+		System.out.println( hash.entrySet() );
+		System.out.println( hash.getHashStats() );
+	}
+
+}
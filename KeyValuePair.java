@@ -9,11 +9,14 @@ public class KeyValuePair<Key,Value> {
 	//Fields
 	private Key k;
 	private Value v;
+	private int hash;
+	private boolean hashed;
 	
 	//Constructor
 	public KeyValuePair( Key k, Value v) {
 		this.k = k;
 		this.v = v;
+		this.hashed = false;
 	}
 	
 	//Returns the key
@@ -21,6 +24,17 @@ public class KeyValuePair<Key,Value> {
 		return this.k;
 	}
 	
+	//Returns the key's hash code, computed the first time it is asked for
+	//The key never changes, so hash tables can move the pair without
+	//hashing the key again
+	public int getHash() {
+		if ( !this.hashed ) {
+			this.hash = this.k.hashCode();
+			this.hashed = true;
+		}
+		return this.hash;
+	}
+	
 	//Returns the value
 	public Value getValue() {
 		return this.v;
@@ -8,12 +8,14 @@ import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
+import java.util.function.Predicate;
 
 public class LinkedList<T> implements Iterable<T> {
 	
 	//Fields
 	private Node head;
 	private int size;
+	private int lastCompared;
 	
 	//Constructor
 	public LinkedList() {
@@ -132,29 +134,76 @@ public class LinkedList<T> implements Iterable<T> {
 		return curPlace.getThing();
 	}
 	
-	// Project 7
-	// Returns -1 if the key is not found, or the index if found
-	public int containsKey( String key ) {
-		// Check if the list is empty
-		if (this.size == 0) {
-			return -1;
+	//Return the pair in list whose key is key, or null if there is none
+	//The list is walked once, and the cached hashes rule out most pairs
+	//without calling equals. Nothing is allocated, so this is safe on a
+	//hash table's lookup path. If moveToFront is true, the node holding
+	//the pair is relinked at the head, so keys that are asked for often
+	//stay near the front. The number of pairs compared is saved for
+	//getLastCompared
+	public static <K,V> KeyValuePair<K,V> findKey( LinkedList<KeyValuePair<K,V>> list, K key, int hashCode, boolean moveToFront ) {
+		LinkedList<KeyValuePair<K,V>>.Node prev = null;
+		LinkedList<KeyValuePair<K,V>>.Node curPlace = list.head;
+		int compared = 0;
+		while (curPlace != null) {
+			compared++;
+			KeyValuePair<K,V> pair = curPlace.getThing();
+			if ( pair.getHash() == hashCode && pair.getKey().equals( key ) ) {
+				if ( moveToFront && prev != null ) {
+					prev.setNext( curPlace.getNext() );
+					curPlace.setNext( list.head );
+					list.head = curPlace;
+				}
+				list.lastCompared = compared;
+				return pair;
+			}
+			prev = curPlace;
+			curPlace = curPlace.getNext();
 		}
+		list.lastCompared = compared;
+		return null;
+	}
 	
-		//Find the specified location
+	//Return the number of pairs the last findKey on this list compared
+	public int getLastCompared() {
+		return this.lastCompared;
+	}
+	
+	//Move every item that passes test into a new list. Both lists keep
+	//their order, and the nodes themselves are moved, not copied
+	//Returns the new list, or null if no item passed
+	public LinkedList<T> transferIf( Predicate<? super T> test ) {
+		LinkedList<T> moved = null;
+		Node tail = null;
+		Node prev = null;
 		Node curPlace = this.head;
-		KeyValuePair<String,Integer> pair = (KeyValuePair<String,Integer>)(curPlace.getThing());
-		if ( pair.getKey().compareTo( key ) == 0 ) {
-			return 0;
-		}
-		for (int i = 1; i < (this.size); i++) {
-			curPlace = curPlace.getNext();
-			pair = (KeyValuePair<String,Integer>)(curPlace.getThing());
-			if ( pair.getKey().compareTo( key ) == 0 ) {
-				return i;
+		while (curPlace != null) {
+			Node next = curPlace.getNext();
+			if ( test.test( curPlace.getThing() ) ) {
+				//Unlink the node from this list
+				if (prev == null) {
+					this.head = next;
+				} else {
+					prev.setNext( next );
+				}
+				this.size--;
+				
+				//Link it onto the end of the new list
+				curPlace.setNext( null );
+				if (moved == null) {
+					moved = new LinkedList<T>();
+					moved.head = curPlace;
+				} else {
+					tail.setNext( curPlace );
+				}
+				tail = curPlace;
+				moved.size++;
+			} else {
+				prev = curPlace;
 			}
+			curPlace = next;
 		}
-		
-		return -1;
+		return moved;
 	}
 	
 	//Return the contents of the linked list as an ArrayList
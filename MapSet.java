@@ -6,8 +6,11 @@
  */
  
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
-public interface MapSet<K,V> {
+public interface MapSet<K,V> extends Iterable<KeyValuePair<K,V>> {
 
     // adds or updates a key-value pair
     // If there is already a piar with new_key in the map, then update
@@ -24,6 +27,22 @@ public interface MapSet<K,V> {
     // If that key is not in the map, then it returns null.
     public V get( K key );
     
+    // Finds or creates the pair with the given key in a single traversal.
+    // If there is no pair with key, then add pair with key and value.
+    // Otherwise, update the pair's value to fn( oldValue, value ).
+    // returns the new value stored with key
+    public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn );
+    
+    // Adds or updates every pair in the list, as if by calling put on
+    // each one in list order.
+    // Implementations override this to size or build their storage for
+    // the whole list at once instead of growing one pair at a time.
+    public default void putAll( ArrayList<KeyValuePair<K,V>> pairs ) {
+        for ( KeyValuePair<K,V> pair: pairs ) {
+            this.put( pair.getKey(), pair.getValue() );
+        }
+    }
+    
     // Returns an ArrayList of all the keys in the map. There is no
     // defined order for the keys.
     public ArrayList<K> keySet();
@@ -37,6 +56,24 @@ public interface MapSet<K,V> {
     // be added to the list by a pre-order traversal.
     public ArrayList<KeyValuePair<K,V>> entrySet(); 
 
+    // Calls action on every key and value in the map, in the same order
+    // as entrySet. Implementations walk their own structure instead of
+    // building a list of the pairs first.
+    public default void forEach( BiConsumer<? super K, ? super V> action ) {
+        for ( KeyValuePair<K,V> pair: this.entrySet() ) {
+            action.accept( pair.getKey(), pair.getValue() );
+        }
+    }
+
+    // Returns an iterator over the pairs, in the same order as entrySet.
+    // Implementations walk their own structure one pair at a time instead
+    // of copying every pair into a list first. Changing the map while an
+    // iterator is in use gives undefined results, and remove is not
+    // supported.
+    public default Iterator<KeyValuePair<K,V>> iterator() {
+        return this.entrySet().iterator();
+    }
+
     // Returns the number of key-value pairs in the map.
     public int size();
         
@@ -0,0 +1,306 @@
+/*
+ * Name: MapSetBenchmark.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+// Times the MapSet implementations operation by operation, and optionally
+// WordCounter.analyze end to end.
+// Every measurement runs some warmup iterations first so the JIT has
+// compiled the code being timed, then reports the mean and the standard
+// deviation of the measured iterations. Every result the maps return is
+// folded into a sum that is published once per iteration, so the JIT
+// cannot throw the work away as dead code.
+// Operations are put into a table sized for every key, expand from a
+// table of 16 buckets (hash tables only), get, containsKey and entrySet.
+// Keys are drawn uniformly, from a Zipf distribution like word
+// frequencies, or in sorted order, which is the worst case for BSTMap.
+// Output is one CSV row per measurement:
+//   benchmark,map,distribution,ns/op,error
+// Usage: java MapSetBenchmark [-keys n] [-warmup n] [-iterations n] [-seed n] [files...]
+public class MapSetBenchmark {
+	private static final String[] DISTRIBUTIONS = { "uniform", "zipf", "sorted" };
+	private static final double ZIPF_EXPONENT = 1.0;
+	private static final int SMALL_SIZE = 16;
+
+	// Published once per iteration so the maps' results are never unused
+	private static volatile long sink;
+
+	//Fields
+	private int numKeys;
+	private int warmup;
+	private int iterations;
+	private Random random;
+
+	//Constructor
+	public MapSetBenchmark( int numKeys, int warmup, int iterations, long seed ) {
+		this.numKeys = numKeys;
+		this.warmup = warmup;
+		this.iterations = iterations;
+		this.random = new Random( seed );
+	}
+
+	// One timed unit of work; returns a value to feed the sink
+	private interface Task {
+		long run();
+	}
+
+	// Build a key that sorts in the same order as its number
+	private static String key( int i ) {
+		String digits = Integer.toString( i );
+		while ( digits.length() < 8 ) {
+			digits = "0" + digits;
+		}
+		return "w" + digits;
+	}
+
+	// Make numKeys keys following the named distribution
+	// The vocabulary is numKeys distinct keys, so uniform and zipf repeat
+	// some keys and leave others out, like real text
+	public String[] keys( String distribution ) {
+		String[] vocabulary = new String[this.numKeys];
+		for ( int i = 0; i < this.numKeys; i++ ) {
+			vocabulary[i] = key( i );
+		}
+		if ( distribution.equals( "sorted" ) ) {
+			return vocabulary;
+		}
+
+		// The cumulative weights of each rank, for drawing zipf ranks
+		double[] cdf = null;
+		if ( distribution.equals( "zipf" ) ) {
+			cdf = new double[this.numKeys];
+			double total = 0;
+			for ( int i = 0; i < this.numKeys; i++ ) {
+				total += 1.0 / Math.pow( i + 1, ZIPF_EXPONENT );
+				cdf[i] = total;
+			}
+			for ( int i = 0; i < this.numKeys; i++ ) {
+				cdf[i] /= total;
+			}
+		}
+
+		String[] keys = new String[this.numKeys];
+		for ( int i = 0; i < this.numKeys; i++ ) {
+			int rank;
+			if ( cdf == null ) {
+				rank = this.random.nextInt( this.numKeys );
+			} else {
+				rank = search( cdf, this.random.nextDouble() );
+			}
+			keys[i] = vocabulary[rank];
+		}
+		return keys;
+	}
+
+	// Return the first index whose cumulative weight is at least p
+	private static int search( double[] cdf, double p ) {
+		int low = 0;
+		int high = cdf.length - 1;
+		while ( low < high ) {
+			int mid = (low + high) >>> 1;
+			if ( cdf[mid] < p ) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// Return a factory for the named map; the argument is the starting size,
+	// which the tree maps ignore
+	public static IntFunction<MapSet<String, Integer>> factory( String name ) {
+		if ( name.equals( "BSTMap" ) ) {
+			return size -> new BSTMap<String, Integer>( new StringAscending() );
+		} else if ( name.equals( "AVLMap" ) ) {
+			return size -> new AVLMap<String, Integer>( new StringAscending() );
+		} else if ( name.equals( "Hashmap" ) ) {
+			return size -> new Hashmap<String, Integer>( size, new StringAscending() );
+		} else if ( name.equals( "HashmapList" ) ) {
+			return size -> new HashmapList<String, Integer>( size, new StringAscending() );
+		} else if ( name.equals( "HashmapListMTF" ) ) {
+			return size -> new HashmapList<String, Integer>( size, new StringAscending(), false, true );
+		} else if ( name.equals( "HybridHashmap" ) ) {
+			return size -> new HybridHashmap<String, Integer>( size, new StringAscending() );
+		} else if ( name.equals( "IntCountMap" ) ) {
+			return size -> new IntCountMap( size );
+		} else if ( name.equals( "StripedHashmap" ) ) {
+			return size -> new StripedHashmap<String, Integer>( size, 64 );
+		} else if ( name.equals( "OffHeapWordTable" ) ) {
+			return size -> new OffHeapWordTable( size );
+		}
+		return null;
+	}
+
+	// Free anything a map holds outside the Java heap
+	private static void release( MapSet<String, Integer> map ) {
+		if ( map instanceof OffHeapWordTable ) {
+			((OffHeapWordTable)map).close();
+		}
+	}
+
+	// Put every key into a new map made by factory with the given size
+	private static MapSet<String, Integer> fill( IntFunction<MapSet<String, Integer>> factory, int size, String[] keys ) {
+		MapSet<String, Integer> map = factory.apply( size );
+		for ( int i = 0; i < keys.length; i++ ) {
+			map.put( keys[i], i );
+		}
+		return map;
+	}
+
+	// Run task warmup times untimed and then iterations times timed
+	// Returns the mean and standard deviation of the time per operation in
+	// nanoseconds, where each run of task does opsPerRun operations
+	public double[] measure( Task task, long opsPerRun ) {
+		for ( int i = 0; i < this.warmup; i++ ) {
+			sink = task.run();
+		}
+
+		double[] times = new double[this.iterations];
+		for ( int i = 0; i < this.iterations; i++ ) {
+			long beginTime = System.nanoTime();
+			long result = task.run();
+			times[i] = (double)(System.nanoTime() - beginTime) / opsPerRun;
+			sink = result;
+		}
+
+		double mean = 0;
+		for ( double time: times ) {
+			mean += time;
+		}
+		mean /= times.length;
+		double variance = 0;
+		for ( double time: times ) {
+			variance += (time - mean) * (time - mean);
+		}
+		if ( times.length > 1 ) {
+			variance /= times.length - 1;
+		}
+		return new double[] { mean, Math.sqrt( variance ) };
+	}
+
+	// Print one CSV row of results
+	private static void printRow( String benchmark, String map, String distribution, double[] result ) {
+		System.out.printf( "%s,%s,%s,%.2f,%.2f%n", benchmark, map, distribution, result[0], result[1] );
+	}
+
+	// Time every operation on the named map for every key distribution
+	public void benchmarkMap( String name ) {
+		IntFunction<MapSet<String, Integer>> factory = factory( name );
+		boolean isTree = name.equals( "BSTMap" ) || name.equals( "AVLMap" );
+
+		for ( String distribution: DISTRIBUTIONS ) {
+			String[] keys = this.keys( distribution );
+			int fullSize = 2 * keys.length;
+
+			printRow( "put", name, distribution, this.measure( () -> {
+				MapSet<String, Integer> map = fill( factory, fullSize, keys );
+				long size = map.size();
+				release( map );
+				return size;
+			}, keys.length ) );
+
+			if ( !isTree ) {
+				printRow( "expand", name, distribution, this.measure( () -> {
+					MapSet<String, Integer> map = fill( factory, SMALL_SIZE, keys );
+					long size = map.size();
+					release( map );
+					return size;
+				}, keys.length ) );
+			}
+
+			// The lookups use keys from the same distribution, so some of
+			// them are missing from the map
+			MapSet<String, Integer> map = fill( factory, fullSize, keys );
+			String[] lookups = this.keys( distribution );
+
+			printRow( "get", name, distribution, this.measure( () -> {
+				long total = 0;
+				for ( String key: lookups ) {
+					Integer value = map.get( key );
+					if ( value != null ) {
+						total += value;
+					}
+				}
+				return total;
+			}, lookups.length ) );
+
+			printRow( "containsKey", name, distribution, this.measure( () -> {
+				long found = 0;
+				for ( String key: lookups ) {
+					if ( map.containsKey( key ) ) {
+						found++;
+					}
+				}
+				return found;
+			}, lookups.length ) );
+
+			// Reported per pair in the map
+			printRow( "entrySet", name, distribution, this.measure( () -> {
+				ArrayList<KeyValuePair<String, Integer>> pairs = map.entrySet();
+				return pairs.size() + pairs.get( pairs.size() - 1 ).getValue();
+			}, map.size() ) );
+
+			release( map );
+		}
+	}
+
+	// Time WordCounter.analyze on each file with the given backend
+	// Reported per word in the file
+	public void benchmarkAnalyze( String name, int structType, String filename ) {
+		WordCounter counter = new WordCounter( structType );
+		counter.analyze( filename );
+		long numWords = counter.getTotalWordCount();
+
+		printRow( "analyze", name, filename, this.measure( () -> {
+			counter.clear();
+			counter.analyze( filename );
+			return counter.getTotalWordCount() + counter.getUniqueWords();
+		}, Math.max( 1, numWords ) ) );
+	}
+
+	public static void main( String[] args ) {
+		int numKeys = 20000;
+		int warmup = 5;
+		int iterations = 10;
+		long seed = 42;
+		ArrayList<String> files = new ArrayList<String>();
+
+		for ( int i = 0; i < args.length; i++ ) {
+			if ( args[i].equals( "-keys" ) ) {
+				numKeys = Integer.parseInt( args[++i] );
+			} else if ( args[i].equals( "-warmup" ) ) {
+				warmup = Integer.parseInt( args[++i] );
+			} else if ( args[i].equals( "-iterations" ) ) {
+				iterations = Integer.parseInt( args[++i] );
+			} else if ( args[i].equals( "-seed" ) ) {
+				seed = Long.parseLong( args[++i] );
+			} else {
+				files.add( args[i] );
+			}
+		}
+
+		MapSetBenchmark bench = new MapSetBenchmark( numKeys, warmup, iterations, seed );
+		System.out.println( "benchmark,map,distribution,ns/op,error" );
+
+		String[] maps = { "BSTMap", "AVLMap", "Hashmap", "HashmapList", "HashmapListMTF", "HybridHashmap", "IntCountMap", "StripedHashmap", "OffHeapWordTable" };
+		for ( String name: maps ) {
+			bench.benchmarkMap( name );
+		}
+
+		String[] backends = { "BSTMap", "HashmapList", "IntCountMap", "AVLMap", "StripedHashmap", "HybridHashmap" };
+		int[] structTypes = { WordCounter.BSTMAP, WordCounter.HASHMAP, WordCounter.COUNTMAP, WordCounter.AVLMAP, WordCounter.STRIPEDMAP, WordCounter.HYBRIDMAP };
+		for ( String filename: files ) {
+			for ( int i = 0; i < backends.length; i++ ) {
+				bench.benchmarkAnalyze( backends[i], structTypes[i], filename );
+			}
+		}
+	}
+
+}
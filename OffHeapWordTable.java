@@ -0,0 +1,536 @@
+/*
+ * Name: OffHeapWordTable.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+
+// String -> int count table that keeps its keys and counts outside the
+// Java heap, for vocabularies too big to hold as Strings and nodes.
+//
+// Keys are stored once as UTF-8 in an arena of direct ByteBuffer pages,
+// each record being an int length followed by the bytes. The index is an
+// open addressing table, also in direct pages, with one 16 byte slot per
+// entry: the key's hash code, its count, and a reference to the key's
+// record. A reference of 0 marks an empty slot. Growing the index reuses
+// the stored hash codes, so keys are never read back during a resize.
+//
+// The garbage collector only sees a handful of large buffers, however many
+// keys there are. Call close() to give the memory back right away instead
+// of waiting for the buffers to be collected.
+public class OffHeapWordTable implements MapSet<String,Integer>, AutoCloseable {
+	// Key arena pages are 64 MB
+	private static final int PAGE_BITS = 26;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	// Index pages hold 4M slots of 16 bytes
+	private static final int SLOT_BITS = 22;
+	private static final int SLOTS_PER_PAGE = 1 << SLOT_BITS;
+	private static final int SLOT_SIZE = 16;
+
+	//Fields
+	private ArrayList<ByteBuffer> keyPages;
+	private int keyPos;
+	private ByteBuffer[] index;
+	private long capacity;
+	private long spotsFilled;
+	private int numCollisions;
+	private boolean closed;
+
+	//Constructor; size is the starting number of index slots,
+	// rounded up to a power of two
+	public OffHeapWordTable( long size ) {
+		long slots = 2;
+		while ( slots < size ) {
+			slots = slots * 2;
+		}
+		this.keyPages = new ArrayList<ByteBuffer>();
+		this.keyPos = PAGE_SIZE;
+		this.index = allocateIndex( slots );
+		this.capacity = slots;
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+		this.closed = false;
+	}
+
+	// Make zeroed index pages with room for the given number of slots
+	private static ByteBuffer[] allocateIndex( long slots ) {
+		int numPages = (int)((slots + SLOTS_PER_PAGE - 1) / SLOTS_PER_PAGE);
+		ByteBuffer[] pages = new ByteBuffer[numPages];
+		for ( int i = 0; i < numPages; i++ ) {
+			long pageSlots = Math.min( SLOTS_PER_PAGE, slots - (long)i * SLOTS_PER_PAGE );
+			pages[i] = ByteBuffer.allocateDirect( (int)(pageSlots * SLOT_SIZE) ).order( ByteOrder.nativeOrder() );
+		}
+		return pages;
+	}
+
+	// Index slot accessors
+	private int slotHash( long slot ) {
+		return this.index[(int)(slot >>> SLOT_BITS)].getInt( (int)(slot & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE );
+	}
+
+	private int slotCount( long slot ) {
+		return this.index[(int)(slot >>> SLOT_BITS)].getInt( (int)(slot & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE + 4 );
+	}
+
+	private long slotRef( long slot ) {
+		return this.index[(int)(slot >>> SLOT_BITS)].getLong( (int)(slot & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE + 8 );
+	}
+
+	private void setCount( long slot, int count ) {
+		this.index[(int)(slot >>> SLOT_BITS)].putInt( (int)(slot & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE + 4, count );
+	}
+
+	private static void setSlot( ByteBuffer[] pages, long slot, int hash, int count, long ref ) {
+		ByteBuffer page = pages[(int)(slot >>> SLOT_BITS)];
+		int offset = (int)(slot & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE;
+		page.putInt( offset, hash );
+		page.putInt( offset + 4, count );
+		page.putLong( offset + 8, ref );
+	}
+
+	// Generate the home slot for a hash code
+	private static long home( int hash, long capacity ) {
+		long h = (hash * 0x9E3779B97F4A7C15L);
+		return (h >>> 32) & (capacity - 1);
+	}
+
+	// Throw if close() has already been called
+	private void checkOpen() {
+		if ( this.closed ) {
+			throw new IllegalStateException( "word table is closed" );
+		}
+	}
+
+	// Copy a key into the arena and return a reference to its record
+	private long storeKey( String key ) {
+		byte[] bytes = key.getBytes( StandardCharsets.UTF_8 );
+		int recordSize = 4 + bytes.length;
+		if ( recordSize > PAGE_SIZE ) {
+			throw new IllegalArgumentException( "key is too long" );
+		}
+		// Records never cross a page, so start a new page if needed
+		if ( this.keyPos + recordSize > PAGE_SIZE ) {
+			this.keyPages.add( ByteBuffer.allocateDirect( PAGE_SIZE ).order( ByteOrder.nativeOrder() ) );
+			this.keyPos = 0;
+		}
+		int pageNum = this.keyPages.size() - 1;
+		ByteBuffer page = this.keyPages.get( pageNum );
+		page.putInt( this.keyPos, bytes.length );
+		page.put( this.keyPos + 4, bytes );
+		long ref = ((long)pageNum << PAGE_BITS) + this.keyPos + 1;
+		this.keyPos += recordSize;
+		return ref;
+	}
+
+	// Read a key back out of the arena as a String
+	private String loadKey( long ref ) {
+		ByteBuffer page = this.keyPages.get( (int)((ref - 1) >>> PAGE_BITS) );
+		int offset = (int)((ref - 1) & (PAGE_SIZE - 1));
+		byte[] bytes = new byte[page.getInt( offset )];
+		page.get( offset + 4, bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	// Returns true if the record at ref holds key
+	// ASCII keys are compared in place; others are encoded first
+	private boolean keyEquals( long ref, String key ) {
+		ByteBuffer page = this.keyPages.get( (int)((ref - 1) >>> PAGE_BITS) );
+		int offset = (int)((ref - 1) & (PAGE_SIZE - 1));
+		int length = page.getInt( offset );
+		int i = 0;
+		while ( i < key.length() && i < length ) {
+			char c = key.charAt( i );
+			if ( c >= 0x80 ) {
+				break;
+			}
+			if ( page.get( offset + 4 + i ) != c ) {
+				return false;
+			}
+			i++;
+		}
+		if ( i == key.length() ) {
+			return i == length;
+		}
+		if ( i == length ) {
+			return false;
+		}
+
+		// Found a non-ASCII char, so compare the UTF-8 bytes
+		byte[] bytes = key.getBytes( StandardCharsets.UTF_8 );
+		if ( bytes.length != length ) {
+			return false;
+		}
+		for ( int j = i; j < length; j++ ) {
+			if ( page.get( offset + 4 + j ) != bytes[j] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Return the slot holding the key, or the empty slot where it belongs
+	private long findSlot( String key, int hash ) {
+		long slot = home( hash, this.capacity );
+		long ref = this.slotRef( slot );
+		while ( ref != 0 ) {
+			if ( this.slotHash( slot ) == hash && this.keyEquals( ref, key ) ) {
+				return slot;
+			}
+			slot = (slot + 1) & (this.capacity - 1);
+			ref = this.slotRef( slot );
+		}
+		return slot;
+	}
+
+	// Claim an empty slot for a new key
+	private void insert( long slot, String key, int hash, int count ) {
+		setSlot( this.index, slot, hash, count, this.storeKey( key ) );
+		this.spotsFilled++;
+		if ( slot != home( hash, this.capacity ) ) {
+			this.numCollisions++;
+		}
+	}
+
+	// Add delta to the count for key, inserting the key if it is new
+	// Returns the new count
+	public int increment( String key, int delta ) {
+		this.checkOpen();
+		// If the table is half full, double the size of the index
+		if ( this.spotsFilled >= this.capacity / 2 ) {
+			this.expand();
+		}
+
+		int hash = key.hashCode();
+		long slot = this.findSlot( key, hash );
+		if ( this.slotRef( slot ) == 0 ) {
+			this.insert( slot, key, hash, delta );
+			return delta;
+		}
+		int count = this.slotCount( slot ) + delta;
+		this.setCount( slot, count );
+		return count;
+	}
+
+	// Add a key-value pair to the table
+	// Returns the old value or null if no old value existed
+	public Integer put( String key, Integer value ) {
+		this.checkOpen();
+		if ( this.spotsFilled >= this.capacity / 2 ) {
+			this.expand();
+		}
+
+		int hash = key.hashCode();
+		long slot = this.findSlot( key, hash );
+		if ( this.slotRef( slot ) == 0 ) {
+			this.insert( slot, key, hash, value );
+			return null;
+		}
+		int old = this.slotCount( slot );
+		this.setCount( slot, value );
+		return old;
+	}
+
+	// Add a key-value pair, or combine it with the existing value using fn
+	// Returns the new value stored with the key
+	public Integer merge( String key, Integer value, BiFunction<? super Integer, ? super Integer, ? extends Integer> fn ) {
+		this.checkOpen();
+		if ( this.spotsFilled >= this.capacity / 2 ) {
+			this.expand();
+		}
+
+		int hash = key.hashCode();
+		long slot = this.findSlot( key, hash );
+		if ( this.slotRef( slot ) == 0 ) {
+			this.insert( slot, key, hash, value );
+			return value;
+		}
+		int newValue = fn.apply( this.slotCount( slot ), value );
+		this.setCount( slot, newValue );
+		return newValue;
+	}
+
+	// Add every pair in the list, sizing the index for all of them first
+	// so it is rebuilt at most once instead of once per doubling
+	public void putAll( ArrayList<KeyValuePair<String,Integer>> pairs ) {
+		this.checkOpen();
+		long needed = this.spotsFilled + pairs.size();
+		long newCapacity = this.capacity;
+		while ( needed >= newCapacity / 2 ) {
+			newCapacity = newCapacity * 2;
+		}
+		if ( newCapacity != this.capacity ) {
+			this.resize( newCapacity );
+		}
+
+		for ( KeyValuePair<String,Integer> pair: pairs ) {
+			this.put( pair.getKey(), pair.getValue() );
+		}
+	}
+
+	// Double the size of the index
+	private void expand() {
+		this.resize( this.capacity * 2 );
+	}
+
+	// Move every slot into a new index of the given power-of-two size,
+	// placing each one by its stored hash
+	private void resize( long newCapacity ) {
+		ByteBuffer[] newIndex = allocateIndex( newCapacity );
+		int collisions = 0;
+
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			long ref = this.slotRef( slot );
+			if ( ref != 0 ) {
+				int hash = this.slotHash( slot );
+				long home = home( hash, newCapacity );
+				long target = home;
+				while ( newIndex[(int)(target >>> SLOT_BITS)].getLong( (int)(target & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE + 8 ) != 0 ) {
+					target = (target + 1) & (newCapacity - 1);
+				}
+				setSlot( newIndex, target, hash, this.slotCount( slot ), ref );
+				if ( target != home ) {
+					collisions++;
+				}
+			}
+		}
+
+		ByteBuffer[] oldIndex = this.index;
+		this.index = newIndex;
+		this.capacity = newCapacity;
+		this.numCollisions = collisions;
+		for ( ByteBuffer page: oldIndex ) {
+			free( page );
+		}
+	}
+
+	// Returns true if the map contains a key-value pair with the given key
+	public boolean containsKey( String key ) {
+		this.checkOpen();
+		return this.slotRef( this.findSlot( key, key.hashCode() ) ) != 0;
+	}
+
+	// Returns the value associated with the given key.
+	// If that key is not in the map, then it returns null.
+	public Integer get( String key ) {
+		this.checkOpen();
+		long slot = this.findSlot( key, key.hashCode() );
+		if ( this.slotRef( slot ) == 0 ) {
+			return null;
+		}
+		return this.slotCount( slot );
+	}
+
+	// Return the count for key, or 0 if the key is not in the map
+	public int getCount( String key ) {
+		this.checkOpen();
+		return this.slotCount( this.findSlot( key, key.hashCode() ) );
+	}
+
+	// Returns an ArrayList of all the keys in the map, copied onto the heap.
+	// There is no defined order for the keys.
+	public ArrayList<String> keySet() {
+		this.checkOpen();
+		ArrayList<String> list = new ArrayList<String>();
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			long ref = this.slotRef( slot );
+			if ( ref != 0 ) {
+				list.add( this.loadKey( ref ) );
+			}
+		}
+		return list;
+	}
+
+	// Returns an ArrayList of all the values in the map, in the same
+	// order as the keySet.
+	public ArrayList<Integer> values() {
+		this.checkOpen();
+		ArrayList<Integer> list = new ArrayList<Integer>();
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			if ( this.slotRef( slot ) != 0 ) {
+				list.add( this.slotCount( slot ) );
+			}
+		}
+		return list;
+	}
+
+	// return an ArrayList of pairs copied onto the heap, in index order
+	public ArrayList<KeyValuePair<String,Integer>> entrySet() {
+		this.checkOpen();
+		ArrayList<KeyValuePair<String,Integer>> list = new ArrayList<KeyValuePair<String,Integer>>();
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			long ref = this.slotRef( slot );
+			if ( ref != 0 ) {
+				list.add( new KeyValuePair<String,Integer>( this.loadKey( ref ), this.slotCount( slot ) ) );
+			}
+		}
+		return list;
+	}
+
+	// Calls action on every key and count, in index order, without
+	// building a list of the pairs. Each key is still copied onto the heap
+	public void forEach( BiConsumer<? super String, ? super Integer> action ) {
+		this.checkOpen();
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			long ref = this.slotRef( slot );
+			if ( ref != 0 ) {
+				action.accept( this.loadKey( ref ), this.slotCount( slot ) );
+			}
+		}
+	}
+
+	// Returns an iterator over the pairs in index order
+	// Each key is copied onto the heap when its pair is reached
+	public Iterator<KeyValuePair<String,Integer>> iterator() {
+		this.checkOpen();
+		return new Iterator<KeyValuePair<String,Integer>>() {
+			private long slot = this.skip( 0 );
+
+			// Return the first filled slot at or after s
+			private long skip( long s ) {
+				while ( s < capacity && slotRef( s ) == 0 ) {
+					s++;
+				}
+				return s;
+			}
+
+			public boolean hasNext() {
+				return this.slot < capacity;
+			}
+
+			public KeyValuePair<String,Integer> next() {
+				if ( this.slot >= capacity ) {
+					throw new NoSuchElementException();
+				}
+				KeyValuePair<String,Integer> pair = new KeyValuePair<String,Integer>( loadKey( slotRef( this.slot ) ), slotCount( this.slot ) );
+				this.slot = this.skip( this.slot + 1 );
+				return pair;
+			}
+		};
+	}
+
+	// Returns the number of key-value pairs in the map.
+	public int size() {
+		return (int)Math.min( Integer.MAX_VALUE, this.spotsFilled );
+	}
+
+	// Returns the number of key-value pairs in the map, past 2^31 too
+	public long longSize() {
+		return this.spotsFilled;
+	}
+
+	// removes all mappings from this MapSet, releasing the key pages
+	public void clear() {
+		this.checkOpen();
+		for ( ByteBuffer page: this.keyPages ) {
+			free( page );
+		}
+		this.keyPages.clear();
+		this.keyPos = PAGE_SIZE;
+		for ( ByteBuffer page: this.index ) {
+			free( page );
+		}
+		this.index = allocateIndex( this.capacity );
+		this.spotsFilled = 0;
+		this.numCollisions = 0;
+	}
+
+	// Return the number of keys that could not be placed in their home slot
+	public int getCollisions() {
+		return this.numCollisions;
+	}
+
+	// Return the number of bytes held outside the heap
+	public long getMemoryBytes() {
+		return this.capacity * SLOT_SIZE + (long)this.keyPages.size() * PAGE_SIZE;
+	}
+
+	// Release all off-heap memory. The table can not be used afterwards
+	public void close() {
+		if ( this.closed ) {
+			return;
+		}
+		for ( ByteBuffer page: this.keyPages ) {
+			free( page );
+		}
+		for ( ByteBuffer page: this.index ) {
+			free( page );
+		}
+		this.keyPages = null;
+		this.index = null;
+		this.closed = true;
+	}
+
+	// Free a direct buffer now rather than when it is garbage collected.
+	// Uses Unsafe.invokeCleaner from jdk.unsupported; if that is missing
+	// the buffer is simply left for the collector
+	private static void free( ByteBuffer buffer ) {
+		try {
+			Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+			Field field = unsafeClass.getDeclaredField( "theUnsafe" );
+			field.setAccessible( true );
+			Method invokeCleaner = unsafeClass.getMethod( "invokeCleaner", ByteBuffer.class );
+			invokeCleaner.invoke( field.get( null ), buffer );
+		}
+		catch(ReflectiveOperationException ex) {
+			// Leave the buffer for the garbage collector
+		}
+	}
+
+	// print the table neatly
+	public String toString() {
+		this.checkOpen();
+		String str = "";
+		for ( long slot = 0; slot < this.capacity; slot++ ) {
+			long ref = this.slotRef( slot );
+			if ( ref == 0 ) {
+				str += "null\n";
+			} else {
+				str += "(" + this.loadKey( ref ) + ", " + this.slotCount( slot ) + ")\n";
+			}
+		}
+		return str;
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		OffHeapWordTable table = new OffHeapWordTable( 4 );
+
+		table.put( "w", 2 );
+		table.put( "yes", 3 );
+		table.put( "no", 4 );
+		table.put( "w", 1 );
+		table.increment( "w", 4 );
+		table.merge( "cool", 6, Integer::sum );
+		table.put( "na\u00efve", 11 );
+
+		System.out.println( table );
+		System.out.println( "size: " + table.size() );
+		System.out.println( "collision: " + table.getCollisions() );
+		System.out.println( "contains what: " + table.containsKey( "what" ) );
+		System.out.println( "contains na\u00efve: " + table.containsKey( "na\u00efve" ) );
+		System.out.println( "w: " + table.get( "w" ) );
+		System.out.println( table.entrySet() );
+
+		// A bigger vocabulary
+		for ( int i = 0; i < 1000000; i++ ) {
+			table.increment( "word" + (i % 300000), 1 );
+		}
+		System.out.println( "size: " + table.size() + " (expect 300005)" );
+		System.out.println( "word7: " + table.getCount( "word7" ) + " (expect 4)" );
+		System.out.println( "off-heap bytes: " + table.getMemoryBytes() );
+		table.close();
+	}
+
+}
@@ -0,0 +1,505 @@
+/*
+ * Name: StripedHashmap.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+
+// Hash table that many threads can update at once. The buckets are split
+// into segments, and each segment has its own lock and its own table, so
+// writers only wait for each other when their keys land in the same
+// segment. A segment that fills up doubles its own table while the other
+// segments keep taking writes.
+//
+// Reads never lock. A chain entry's key, hash and next pointer never change
+// once it is published, and a resize builds a fresh table before swapping
+// it in, so a reader always sees either the old table or the new one.
+//
+// merge is atomic, so merge( word, 1, Integer::sum ) is a safe shared
+// counter.
+//
+// The running counts for getHashStats are kept per segment under its lock,
+// so only puts and merges are counted. Counting the lock-free reads would
+// make every reader write to memory shared with the other threads.
+public class StripedHashmap<K,V> implements MapSet<K,V>, HashStatsSource {
+	//Fields
+	private Segment<K,V>[] segments;
+	private int segmentShift;
+
+	//Constructor; size is the total starting number of buckets
+	// numSegments is rounded up to a power of two
+	public StripedHashmap( int size, int numSegments ) {
+		int segmentCount = 1;
+		while ( segmentCount < numSegments ) {
+			segmentCount = segmentCount * 2;
+		}
+		int tableSize = 2;
+		while ( tableSize * segmentCount < size ) {
+			tableSize = tableSize * 2;
+		}
+
+		// Java cannot make an array of a generic type, so make a raw one
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Segment<K,V>[] segments = (Segment<K,V>[])new Segment[segmentCount];
+		this.segments = segments;
+		for ( int i = 0; i < segmentCount; i++ ) {
+			this.segments[i] = new Segment<K,V>( tableSize );
+		}
+		// The top bits of the hash pick the segment, the low bits the bucket
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros( segmentCount );
+	}
+
+	// Mix the high bits of the key's hash code into the low bits
+	private static int hash( Object key ) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	// Return the index of the segment responsible for hash
+	private int segmentIndex( int hash ) {
+		if ( this.segmentShift == 32 ) {
+			return 0;
+		}
+		return (hash * 0x9E3779B9) >>> this.segmentShift;
+	}
+
+	// Return the segment responsible for hash
+	private Segment<K,V> segmentFor( int hash ) {
+		return this.segments[this.segmentIndex( hash )];
+	}
+
+	// Add a key-value pair to the hash table
+	// Returns the old value or null if no old value existed
+	public V put( K key, V value ) {
+		int hash = hash( key );
+		return this.segmentFor( hash ).put( key, hash, value, null, false );
+	}
+
+	// Add a key-value pair, or combine it with the existing value using fn
+	// The whole update happens under the segment's lock
+	// Returns the new value stored with the key
+	public V merge( K key, V value, BiFunction<? super V, ? super V, ? extends V> fn ) {
+		int hash = hash( key );
+		return this.segmentFor( hash ).put( key, hash, value, fn, true );
+	}
+
+	// Add every pair in the list
+	// Each segment is first grown once to fit the pairs that hash to it,
+	// so no segment rehashes while the pairs go in
+	public void putAll( ArrayList<KeyValuePair<K,V>> pairs ) {
+		int[] hashes = new int[pairs.size()];
+		int[] perSegment = new int[this.segments.length];
+		for ( int i = 0; i < pairs.size(); i++ ) {
+			hashes[i] = hash( pairs.get(i).getKey() );
+			perSegment[this.segmentIndex( hashes[i] )]++;
+		}
+		for ( int i = 0; i < this.segments.length; i++ ) {
+			this.segments[i].reserve( perSegment[i] );
+		}
+
+		for ( int i = 0; i < pairs.size(); i++ ) {
+			KeyValuePair<K,V> pair = pairs.get(i);
+			this.segmentFor( hashes[i] ).put( pair.getKey(), hashes[i], pair.getValue(), null, false );
+		}
+	}
+
+	// Returns true if the map contains a key-value pair with the given key
+	public boolean containsKey( K key ) {
+		int hash = hash( key );
+		return this.segmentFor( hash ).find( key, hash ) != null;
+	}
+
+	// Returns the value associated with the given key.
+	// If that key is not in the map, then it returns null.
+	public V get( K key ) {
+		int hash = hash( key );
+		Entry<K,V> entry = this.segmentFor( hash ).find( key, hash );
+		if ( entry == null ) {
+			return null;
+		}
+		return entry.value;
+	}
+
+	// Returns an ArrayList of all the keys in the map. There is no
+	// defined order for the keys.
+	// Keys added while this runs may or may not be included
+	public ArrayList<K> keySet() {
+		ArrayList<K> list = new ArrayList<K>();
+		this.forEach( (key, value) -> list.add( key ) );
+		return list;
+	}
+
+	// Returns an ArrayList of all the values in the map. These are in
+	// the same order as the keySet if the map is not being changed.
+	public ArrayList<V> values() {
+		ArrayList<V> list = new ArrayList<V>();
+		this.forEach( (key, value) -> list.add( value ) );
+		return list;
+	}
+
+	// return an ArrayList holding a copy of every pair in the map
+	public ArrayList<KeyValuePair<K,V>> entrySet() {
+		ArrayList<KeyValuePair<K,V>> list = new ArrayList<KeyValuePair<K,V>>();
+		this.forEach( (key, value) -> list.add( new KeyValuePair<K,V>( key, value ) ) );
+		return list;
+	}
+
+	// Calls action on every key and value without copying the pairs
+	// Does not lock; keys added while this runs may or may not be visited
+	public void forEach( BiConsumer<? super K, ? super V> action ) {
+		for ( Segment<K,V> segment: this.segments ) {
+			AtomicReferenceArray<Entry<K,V>> table = segment.table;
+			for ( int i = 0; i < table.length(); i++ ) {
+				for ( Entry<K,V> entry = table.get( i ); entry != null; entry = entry.next ) {
+					action.accept( entry.key, entry.value );
+				}
+			}
+		}
+	}
+
+	// Returns an iterator over copies of the pairs, in the same order as
+	// entrySet. Does not lock; like forEach, keys added while it is in
+	// use may or may not be visited
+	public Iterator<KeyValuePair<K,V>> iterator() {
+		return new Iterator<KeyValuePair<K,V>>() {
+			private int segmentIndex = 0;
+			private AtomicReferenceArray<Entry<K,V>> table = null;
+			private int bucket = 0;
+			private Entry<K,V> entry = null;
+
+			public boolean hasNext() {
+				// Move to the next chain, then the next segment, until an
+				// entry turns up
+				while ( this.entry == null ) {
+					if ( this.table != null && this.bucket < this.table.length() ) {
+						this.entry = this.table.get( this.bucket++ );
+					} else if ( this.segmentIndex < segments.length ) {
+						this.table = segments[this.segmentIndex++].table;
+						this.bucket = 0;
+					} else {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			public KeyValuePair<K,V> next() {
+				if ( !this.hasNext() ) {
+					throw new NoSuchElementException();
+				}
+				Entry<K,V> current = this.entry;
+				this.entry = current.next;
+				return new KeyValuePair<K,V>( current.key, current.value );
+			}
+		};
+	}
+
+	// Returns the number of key-value pairs in the map.
+	public int size() {
+		int size = 0;
+		for ( Segment<K,V> segment: this.segments ) {
+			size += segment.count;
+		}
+		return size;
+	}
+
+	// removes all mappings from this MapSet
+	public void clear() {
+		for ( Segment<K,V> segment: this.segments ) {
+			segment.clear();
+		}
+	}
+
+	// Return the number of collisions
+	public int getCollisions() {
+		int numCollisions = 0;
+		for ( Segment<K,V> segment: this.segments ) {
+			numCollisions += segment.numCollisions;
+		}
+		return numCollisions;
+	}
+
+	// Returns a snapshot of every segment's layout and running counts
+	// Each segment is locked while it is read. The depth of a bucket is
+	// the length of its chain
+	public HashStats getHashStats() {
+		int size = 0;
+		long lookups = 0;
+		long probes = 0;
+		int resizes = 0;
+		long resizeNanos = 0;
+		int numCollisions = 0;
+		ArrayList<int[]> chains = new ArrayList<int[]>();
+		for ( Segment<K,V> segment: this.segments ) {
+			segment.lock.lock();
+			try {
+				size += segment.count;
+				lookups += segment.lookups;
+				probes += segment.probes;
+				resizes += segment.resizes;
+				resizeNanos += segment.resizeNanos;
+				numCollisions += segment.numCollisions;
+				chains.add( segment.chainLengths() );
+			}
+			finally {
+				segment.lock.unlock();
+			}
+		}
+
+		HashStats stats = new HashStats( size, lookups, probes, resizes, resizeNanos, numCollisions );
+		for ( int[] lengths: chains ) {
+			for ( int length: lengths ) {
+				stats.addBucket( length, length );
+			}
+		}
+		return stats;
+	}
+
+	// print the hashmap neatly
+	public String toString() {
+		String str = "";
+		for ( Segment<K,V> segment: this.segments ) {
+			AtomicReferenceArray<Entry<K,V>> table = segment.table;
+			for ( int i = 0; i < table.length(); i++ ) {
+				Entry<K,V> entry = table.get( i );
+				if ( entry == null ) {
+					str += "null\n";
+					continue;
+				}
+				for ( ; entry != null; entry = entry.next ) {
+					str += "(" + entry.key + ", " + entry.value + ") ";
+				}
+				str += "\n";
+			}
+		}
+		return str;
+	}
+
+
+	// Chain entry; only the value can change after it is published
+	private static class Entry<K,V> {
+		//Fields
+		final K key;
+		final int hash;
+		volatile V value;
+		final Entry<K,V> next;
+
+		//Constructor
+		public Entry( K key, int hash, V value, Entry<K,V> next ) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	// One lock and one table of buckets
+	private static class Segment<K,V> {
+		//Fields
+		final ReentrantLock lock;
+		volatile AtomicReferenceArray<Entry<K,V>> table;
+		volatile int count;
+		volatile int numCollisions;
+
+		// Running counts for getHashStats, only changed under the lock
+		long lookups;
+		long probes;
+		int resizes;
+		long resizeNanos;
+
+		//Constructor
+		public Segment( int tableSize ) {
+			this.lock = new ReentrantLock();
+			this.table = new AtomicReferenceArray<Entry<K,V>>( tableSize );
+			this.count = 0;
+			this.numCollisions = 0;
+			this.lookups = 0;
+			this.probes = 0;
+			this.resizes = 0;
+			this.resizeNanos = 0;
+		}
+
+		// Return the entry holding key, or null. Does not lock
+		public Entry<K,V> find( Object key, int hash ) {
+			AtomicReferenceArray<Entry<K,V>> tab = this.table;
+			Entry<K,V> entry = tab.get( hash & (tab.length() - 1) );
+			while ( entry != null ) {
+				if ( entry.hash == hash && entry.key.equals( key ) ) {
+					return entry;
+				}
+				entry = entry.next;
+			}
+			return null;
+		}
+
+		// Insert or update key under the lock
+		// If merging, combines with fn and returns the new value,
+		// otherwise replaces and returns the old value or null
+		public V put( K key, int hash, V value, BiFunction<? super V, ? super V, ? extends V> fn, boolean merging ) {
+			this.lock.lock();
+			try {
+				// If the table is more than 50% full, double the size of the table
+				if ( this.count > this.table.length() / 2 ) {
+					this.expand();
+				}
+
+				AtomicReferenceArray<Entry<K,V>> tab = this.table;
+				int index = hash & (tab.length() - 1);
+				Entry<K,V> head = tab.get( index );
+
+				// If the key is already in the chain, update it in place
+				this.lookups++;
+				for ( Entry<K,V> entry = head; entry != null; entry = entry.next ) {
+					this.probes++;
+					if ( entry.hash == hash && entry.key.equals( key ) ) {
+						V old = entry.value;
+						entry.value = merging ? fn.apply( old, value ) : value;
+						return merging ? entry.value : old;
+					}
+				}
+
+				// Otherwise, publish a new entry at the head of the chain
+				tab.set( index, new Entry<K,V>( key, hash, value, head ) );
+				if ( head != null ) {
+					this.numCollisions++;
+				}
+				this.count++;
+				return merging ? value : null;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		// Grow the table once so that extra more keys fit without expanding
+		public void reserve( int extra ) {
+			this.lock.lock();
+			try {
+				int length = this.table.length();
+				while ( this.count + extra > length / 2 ) {
+					length = length * 2;
+				}
+				if ( length != this.table.length() ) {
+					this.resize( length );
+				}
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		// Double this segment's table. Called with the lock held
+		private void expand() {
+			this.resize( this.table.length() * 2 );
+		}
+
+		// Move every entry into a new table of the given power-of-two length
+		// Called with the lock held
+		// The old table is left untouched for readers still walking it
+		private void resize( int length ) {
+			long beginTime = System.nanoTime();
+			AtomicReferenceArray<Entry<K,V>> oldTable = this.table;
+			AtomicReferenceArray<Entry<K,V>> newTable = new AtomicReferenceArray<Entry<K,V>>( length );
+			int mask = newTable.length() - 1;
+			int numCollisions = 0;
+
+			for ( int i = 0; i < oldTable.length(); i++ ) {
+				for ( Entry<K,V> entry = oldTable.get( i ); entry != null; entry = entry.next ) {
+					int index = entry.hash & mask;
+					Entry<K,V> head = newTable.get( index );
+					if ( head != null ) {
+						numCollisions++;
+					}
+					newTable.set( index, new Entry<K,V>( entry.key, entry.hash, entry.value, head ) );
+				}
+			}
+
+			this.numCollisions = numCollisions;
+			this.table = newTable;
+			this.resizes++;
+			this.resizeNanos += System.nanoTime() - beginTime;
+		}
+
+		// Return the length of every chain in the table, in bucket order
+		// Called with the lock held
+		public int[] chainLengths() {
+			AtomicReferenceArray<Entry<K,V>> tab = this.table;
+			int[] lengths = new int[tab.length()];
+			for ( int i = 0; i < tab.length(); i++ ) {
+				for ( Entry<K,V> entry = tab.get( i ); entry != null; entry = entry.next ) {
+					lengths[i]++;
+				}
+			}
+			return lengths;
+		}
+
+		// Remove every entry from this segment
+		public void clear() {
+			this.lock.lock();
+			try {
+				this.table = new AtomicReferenceArray<Entry<K,V>>( this.table.length() );
+				this.count = 0;
+				this.numCollisions = 0;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	// Testing function
+	public static void main( String[] args ) throws InterruptedException {
+		StripedHashmap<String, Integer> hash = new StripedHashmap<String, Integer>( 8, 4 );
+
+		hash.put( "w", 2 );
+		hash.put( "yes", 3 );
+		hash.put("no", 4);
+		hash.put( "w", 1);
+		hash.put( "w", 5);
+		hash.put( "cool", 6);
+		hash.put( "nah", 11);
+
+		System.out.println( hash );
+		System.out.println( "size: " + hash.size() );
+		System.out.println( "collision: " + hash.getCollisions() );
+		System.out.println( "contains what: " + hash.containsKey( "what" ) );
+		System.out.println( "contains cool: " + hash.containsKey( "cool" ) );
+		System.out.println( "what: " + hash.get( "what"));
+		System.out.println( "cool: " + hash.get( "cool" ) );
+		System.out.println( hash.entrySet() );
+		System.out.println( "" );
+
+		// Several threads counting into the same map
+		StripedHashmap<String, Integer> counts = new StripedHashmap<String, Integer>( 16, 16 );
+		Thread[] threads = new Thread[8];
+		for ( int t = 0; t < threads.length; t++ ) {
+			threads[t] = new Thread( () -> {
+				for ( int i = 0; i < 100000; i++ ) {
+					counts.merge( "w" + (i % 5000), 1, Integer::sum );
+				}
+			} );
+			threads[t].start();
+		}
+		for ( Thread thread: threads ) {
+			thread.join();
+		}
+		System.out.println( "size: " + counts.size() + " (expect 5000)" );
+		System.out.println( "w0: " + counts.get( "w0" ) + " (expect 160)" );
+		int total = 0;
+		for ( int value: counts.values() ) {
+			total += value;
+		}
+		System.out.println( "total: " + total + " (expect 800000)" );
+		System.out.println( counts.getHashStats() );
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Name: Tokenizer.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+
+// Splits text into the same words as line.split("[^a-zA-Z0-9']") followed
+// by trim() and toLowerCase(), without building any intermediate arrays.
+// Words are made of ASCII letters, digits and apostrophes; every other
+// character separates words. The scanner lowercases each word in place in
+// its char buffer and reports where the word starts and how long it is.
+// Input comes from a Reader or straight from a ByteBuffer, such as a
+// memory-mapped file. Bytes are read as single chars, so the bytes of any
+// multi-byte UTF-8 character all act as separators, just as the decoded
+// character would.
+public class Tokenizer {
+	//Fields
+	private Reader reader;
+	private ByteBuffer bytes;
+	private byte[] scratch;
+	private char[] buffer;
+	private int limit;
+	private int pos;
+	private int start;
+	private int length;
+
+	//Constructor
+	public Tokenizer( Reader reader ) {
+		this( reader, 65536 );
+	}
+
+	//Constructor; bufferSize is the starting number of chars to read at once
+	public Tokenizer( Reader reader, int bufferSize ) {
+		this.reader = reader;
+		this.bytes = null;
+		this.scratch = null;
+		this.buffer = new char[bufferSize];
+		this.limit = 0;
+		this.pos = 0;
+		this.start = 0;
+		this.length = 0;
+	}
+
+	//Constructor; reads the remaining bytes of the buffer
+	public Tokenizer( ByteBuffer bytes ) {
+		this.reader = null;
+		this.bytes = bytes;
+		this.scratch = new byte[65536];
+		this.buffer = new char[65536];
+		this.limit = 0;
+		this.pos = 0;
+		this.start = 0;
+		this.length = 0;
+	}
+
+	// Returns true if c can be part of a word
+	public static boolean isWordChar( char c ) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+			|| (c >= '0' && c <= '9') || c == '\'';
+	}
+
+	// Move to the next word. Returns false once the input is used up
+	public boolean next() throws IOException {
+		// Skip separators, reading more input as needed
+		while ( true ) {
+			while ( this.pos < this.limit && !isWordChar( this.buffer[this.pos] ) ) {
+				this.pos++;
+			}
+			if ( this.pos < this.limit ) {
+				break;
+			}
+			this.pos = 0;
+			this.limit = 0;
+			if ( !this.fill() ) {
+				return false;
+			}
+		}
+
+		// Scan the word, folding upper case letters as we go
+		int wordStart = this.pos;
+		while ( true ) {
+			while ( this.pos < this.limit && isWordChar( this.buffer[this.pos] ) ) {
+				char c = this.buffer[this.pos];
+				if ( c >= 'A' && c <= 'Z' ) {
+					this.buffer[this.pos] = (char)(c + ('a' - 'A'));
+				}
+				this.pos++;
+			}
+			if ( this.pos < this.limit ) {
+				break;
+			}
+
+			// The word runs off the end of the buffer, so slide it to the
+			// front and read more after it
+			int wordLength = this.pos - wordStart;
+			if ( wordLength == this.buffer.length ) {
+				char[] bigger = new char[this.buffer.length * 2];
+				System.arraycopy( this.buffer, 0, bigger, 0, wordLength );
+				this.buffer = bigger;
+			} else {
+				System.arraycopy( this.buffer, wordStart, this.buffer, 0, wordLength );
+			}
+			wordStart = 0;
+			this.pos = wordLength;
+			this.limit = wordLength;
+			if ( !this.fill() ) {
+				break;
+			}
+		}
+
+		this.start = wordStart;
+		this.length = this.pos - wordStart;
+		return true;
+	}
+
+	// Read more chars after limit. Returns false at the end of the input
+	private boolean fill() throws IOException {
+		// Copy a block of bytes out of the byte buffer, widening each one
+		if ( this.bytes != null ) {
+			int numRead = Math.min( this.bytes.remaining(), Math.min( this.scratch.length, this.buffer.length - this.limit ) );
+			if ( numRead <= 0 ) {
+				return false;
+			}
+			this.bytes.get( this.scratch, 0, numRead );
+			for ( int i = 0; i < numRead; i++ ) {
+				this.buffer[this.limit + i] = (char)(this.scratch[i] & 0xff);
+			}
+			this.limit += numRead;
+			return true;
+		}
+
+		int numRead = this.reader.read( this.buffer, this.limit, this.buffer.length - this.limit );
+		if ( numRead <= 0 ) {
+			return false;
+		}
+		this.limit += numRead;
+		return true;
+	}
+
+	// Return the buffer holding the current word
+	// Its contents change on the next call to next()
+	public char[] buffer() {
+		return this.buffer;
+	}
+
+	// Return the index of the current word in buffer()
+	public int start() {
+		return this.start;
+	}
+
+	// Return the number of chars in the current word
+	public int length() {
+		return this.length;
+	}
+
+	// Return the current word as a new String
+	public String token() {
+		return new String( this.buffer, this.start, this.length );
+	}
+
+	// Close the underlying reader
+	public void close() throws IOException {
+		if ( this.reader != null ) {
+			this.reader.close();
+		}
+	}
+
+	// Testing function
+	public static void main( String[] args ) throws IOException {
+		String text = "Hello, World! It's 2019...\n don't-STOP  x'Y'z \t\r\nend";
+		Tokenizer tokens = new Tokenizer( new java.io.StringReader( text ), 4 );
+		while ( tokens.next() ) {
+			System.out.println( tokens.token() );
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Name: TopKTracker.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+// Keeps the k most frequent words while they are being counted.
+// The words sit in a min-heap ordered by count, so the least frequent of
+// the top k is always at the root. An index from word to heap position
+// lets a word that is already in the heap be found and moved in O(log k).
+//
+// Call update with a word's new total every time its count goes up. As
+// long as counts only grow, the heap always holds exactly the top k words:
+// every word outside the heap has a count no bigger than the root's.
+public class TopKTracker {
+	//Fields
+	private int k;
+	private int size;
+	private String[] words;
+	private int[] counts;
+	private HashMap<String, Integer> index;
+
+	//Constructor
+	public TopKTracker( int k ) {
+		this.k = k;
+		this.size = 0;
+		this.words = new String[k];
+		this.counts = new int[k];
+		this.index = new HashMap<String, Integer>( k * 2 );
+	}
+
+	// Record that word now has the given total count
+	public void update( String word, int count ) {
+		Integer pos = this.index.get( word );
+
+		// Already in the top k, so move it down toward the bigger counts
+		if ( pos != null ) {
+			this.counts[pos] = count;
+			this.siftDown( pos );
+			return;
+		}
+
+		// Still filling up the heap
+		if ( this.size < this.k ) {
+			this.words[this.size] = word;
+			this.counts[this.size] = count;
+			this.index.put( word, this.size );
+			this.size++;
+			this.siftUp( this.size - 1 );
+			return;
+		}
+
+		// Replace the smallest of the top k if this word passed it
+		if ( this.k > 0 && count > this.counts[0] ) {
+			this.index.remove( this.words[0] );
+			this.words[0] = word;
+			this.counts[0] = count;
+			this.index.put( word, 0 );
+			this.siftDown( 0 );
+		}
+	}
+
+	// Move the entry at pos up while it is smaller than its parent
+	private void siftUp( int pos ) {
+		while ( pos > 0 ) {
+			int parent = (pos - 1) / 2;
+			if ( this.counts[parent] <= this.counts[pos] ) {
+				return;
+			}
+			this.swap( pos, parent );
+			pos = parent;
+		}
+	}
+
+	// Move the entry at pos down while it is bigger than a child
+	private void siftDown( int pos ) {
+		while ( true ) {
+			int child = 2 * pos + 1;
+			if ( child >= this.size ) {
+				return;
+			}
+			if ( child + 1 < this.size && this.counts[child + 1] < this.counts[child] ) {
+				child++;
+			}
+			if ( this.counts[pos] <= this.counts[child] ) {
+				return;
+			}
+			this.swap( pos, child );
+			pos = child;
+		}
+	}
+
+	// Exchange two heap entries and fix their positions in the index
+	private void swap( int a, int b ) {
+		String word = this.words[a];
+		int count = this.counts[a];
+		this.words[a] = this.words[b];
+		this.counts[a] = this.counts[b];
+		this.words[b] = word;
+		this.counts[b] = count;
+		this.index.put( this.words[a], a );
+		this.index.put( this.words[b], b );
+	}
+
+	// Return the tracked words and counts, most frequent first
+	// Only the k tracked words are copied and sorted
+	public ArrayList<KeyValuePair<String, Integer>> getTopK() {
+		ArrayList<KeyValuePair<String, Integer>> pairs = new ArrayList<KeyValuePair<String, Integer>>( this.size );
+		for ( int i = 0; i < this.size; i++ ) {
+			pairs.add( new KeyValuePair<String, Integer>( this.words[i], this.counts[i] ) );
+		}
+		pairs.sort( (a, b) -> Integer.compare( b.getValue(), a.getValue() ) );
+		return pairs;
+	}
+
+	// Return the smallest count in the top k, or 0 if fewer than k words are tracked
+	public int getThreshold() {
+		if ( this.size < this.k ) {
+			return 0;
+		}
+		return this.counts[0];
+	}
+
+	// Return the number of words being tracked
+	public int size() {
+		return this.size;
+	}
+
+	// Forget every tracked word
+	public void clear() {
+		this.size = 0;
+		this.words = new String[this.k];
+		this.index.clear();
+	}
+
+	// Testing function
+	public static void main( String[] args ) {
+		TopKTracker top = new TopKTracker( 3 );
+		HashMap<String, Integer> totals = new HashMap<String, Integer>();
+		String[] text = { "a", "b", "a", "c", "d", "d", "d", "e", "a", "b", "b", "b", "e", "e", "e", "e" };
+		for ( String word: text ) {
+			int count = totals.merge( word, 1, Integer::sum );
+			top.update( word, count );
+		}
+		System.out.println( top.getTopK() );
+		System.out.println( "threshold: " + top.getThreshold() );
+	}
+
+}
@@ -0,0 +1,283 @@
+/*
+ * Name: WordCountSnapshot.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+
+// Compact binary file of word counts that can be memory-mapped and either
+// queried where it sits or loaded into a map.
+//
+// Layout, all numbers big-endian:
+//   header   int magic "WCS1", int sort order, long total words,
+//            long entry count, long offset of the entry index
+//   entries  varint key length, UTF-8 key bytes, varint count
+//   index    one long per entry: the offset of that entry
+// The index lets a reader jump to any entry. When the entries are sorted
+// by key, getCount finds a word with a binary search over the index.
+//
+// A snapshot is mapped in one piece, so it must be under 2 GB. That is
+// far more than a year of counts needs.
+public class WordCountSnapshot {
+	// Orders the entries can be written in
+	public static final int UNSORTED = 0;
+	public static final int BY_KEY = 1;
+	public static final int BY_COUNT = 2;
+
+	private static final int MAGIC = 0x57435331;
+	private static final int HEADER_SIZE = 32;
+	// The largest file one mapping can hold
+	private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+	//Fields
+	private MappedByteBuffer data;
+	private int sortOrder;
+	private long totalWords;
+	private int numEntries;
+	private int indexOffset;
+
+	//Constructor; use open() to read a snapshot file
+	private WordCountSnapshot( MappedByteBuffer data ) throws IOException {
+		this.data = data;
+		if ( data.getInt( 0 ) != MAGIC ) {
+			throw new IOException( "not a word count snapshot" );
+		}
+		this.sortOrder = data.getInt( 4 );
+		this.totalWords = data.getLong( 8 );
+		this.numEntries = (int)data.getLong( 16 );
+		this.indexOffset = (int)data.getLong( 24 );
+	}
+
+	// Memory-map a snapshot file for reading
+	public static WordCountSnapshot open( String filename ) throws IOException {
+		RandomAccessFile file = new RandomAccessFile( filename, "r" );
+		try {
+			FileChannel channel = file.getChannel();
+			if ( channel.size() > MAX_FILE_SIZE ) {
+				throw new IOException( filename + " is too big to map as a snapshot" );
+			}
+			return new WordCountSnapshot( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	// Sort pairs into the given order, most frequent first for BY_COUNT
+	public static void sort( ArrayList<KeyValuePair<String, Integer>> pairs, int sortOrder ) {
+		if ( sortOrder == BY_KEY ) {
+			pairs.sort( (a, b) -> a.getKey().compareTo( b.getKey() ) );
+		} else if ( sortOrder == BY_COUNT ) {
+			pairs.sort( (a, b) -> Integer.compare( b.getValue(), a.getValue() ) );
+		}
+	}
+
+	// Write every pair in the map to a snapshot file in the given order
+	// Throws an IOException, leaving a partial file, if the snapshot would
+	// be too big to map in one piece
+	public static void write( String filename, long totalWords, MapSet<String, Integer> map, int sortOrder ) throws IOException {
+		ArrayList<KeyValuePair<String, Integer>> pairs = map.entrySet();
+		sort( pairs, sortOrder );
+
+		long[] offsets = new long[pairs.size()];
+		long indexOffset;
+		// DataOutputStream.size() stops counting at 2 GB, so keep a long
+		long position = HEADER_SIZE;
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( filename ), 1 << 16 ) );
+		try {
+			// Write the header with the index offset left at zero for now
+			out.writeInt( MAGIC );
+			out.writeInt( sortOrder );
+			out.writeLong( totalWords );
+			out.writeLong( pairs.size() );
+			out.writeLong( 0 );
+
+			for ( int i = 0; i < pairs.size(); i++ ) {
+				offsets[i] = position;
+				byte[] key = pairs.get(i).getKey().getBytes( StandardCharsets.UTF_8 );
+				position += writeVarint( out, key.length );
+				out.write( key );
+				position += key.length;
+				position += writeVarint( out, pairs.get(i).getValue() );
+				if ( position + 8L * pairs.size() > MAX_FILE_SIZE ) {
+					throw new IOException( "snapshot of " + pairs.size() + " words would be over " + MAX_FILE_SIZE + " bytes, the most one mapping can hold" );
+				}
+			}
+
+			indexOffset = position;
+			for ( long offset: offsets ) {
+				out.writeLong( offset );
+			}
+		}
+		finally {
+			out.close();
+		}
+
+		// Now that the entries are written, fill in the index offset
+		RandomAccessFile file = new RandomAccessFile( filename, "rw" );
+		try {
+			file.seek( 24 );
+			file.writeLong( indexOffset );
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	// Write an unsigned int seven bits at a time, low bits first
+	// Returns the number of bytes written
+	private static int writeVarint( DataOutputStream out, int value ) throws IOException {
+		int numBytes = 1;
+		while ( (value & ~0x7f) != 0 ) {
+			out.writeByte( (value & 0x7f) | 0x80 );
+			value >>>= 7;
+			numBytes++;
+		}
+		out.writeByte( value );
+		return numBytes;
+	}
+
+	// Read a varint at the buffer's position
+	private static int readVarint( ByteBuffer buffer ) {
+		int value = 0;
+		int shift = 0;
+		byte b = buffer.get();
+		while ( (b & 0x80) != 0 ) {
+			value |= (b & 0x7f) << shift;
+			shift += 7;
+			b = buffer.get();
+		}
+		return value | (b << shift);
+	}
+
+	// Return the total word count stored in the header
+	public long getTotalWords() {
+		return this.totalWords;
+	}
+
+	// Return the number of entries
+	public int size() {
+		return this.numEntries;
+	}
+
+	// Return the order the entries were written in
+	public int getSortOrder() {
+		return this.sortOrder;
+	}
+
+	// Return a reader positioned at entry i
+	private ByteBuffer entry( int i ) {
+		ByteBuffer buffer = this.data.duplicate();
+		buffer.position( (int)this.data.getLong( this.indexOffset + 8 * i ) );
+		return buffer;
+	}
+
+	// Read the key at the reader's position
+	private static String readKey( ByteBuffer buffer ) {
+		byte[] key = new byte[readVarint( buffer )];
+		buffer.get( key );
+		return new String( key, StandardCharsets.UTF_8 );
+	}
+
+	// Return the key of entry i
+	public String getKey( int i ) {
+		return readKey( this.entry( i ) );
+	}
+
+	// Return the count of entry i
+	public int getValue( int i ) {
+		ByteBuffer buffer = this.entry( i );
+		int length = readVarint( buffer );
+		buffer.position( buffer.position() + length );
+		return readVarint( buffer );
+	}
+
+	// Return the count of a word without loading the snapshot, or 0
+	// Uses a binary search when the entries are sorted by key,
+	// otherwise scans every entry
+	public int getCount( String word ) {
+		if ( this.sortOrder == BY_KEY ) {
+			int low = 0;
+			int high = this.numEntries - 1;
+			while ( low <= high ) {
+				int mid = (low + high) >>> 1;
+				ByteBuffer buffer = this.entry( mid );
+				int c = readKey( buffer ).compareTo( word );
+				if ( c == 0 ) {
+					return readVarint( buffer );
+				}
+				if ( c < 0 ) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return 0;
+		}
+
+		ByteBuffer buffer = this.data.duplicate();
+		buffer.position( HEADER_SIZE );
+		for ( int i = 0; i < this.numEntries; i++ ) {
+			String key = readKey( buffer );
+			int count = readVarint( buffer );
+			if ( key.equals( word ) ) {
+				return count;
+			}
+		}
+		return 0;
+	}
+
+	// Return every entry as a pair, in file order
+	public ArrayList<KeyValuePair<String, Integer>> entrySet() {
+		ArrayList<KeyValuePair<String, Integer>> pairs = new ArrayList<KeyValuePair<String, Integer>>( this.numEntries );
+		ByteBuffer buffer = this.data.duplicate();
+		buffer.position( HEADER_SIZE );
+		for ( int i = 0; i < this.numEntries; i++ ) {
+			String key = readKey( buffer );
+			pairs.add( new KeyValuePair<String, Integer>( key, readVarint( buffer ) ) );
+		}
+		return pairs;
+	}
+
+	// Add every entry to a map with one bulk load
+	public void loadInto( MapSet<String, Integer> map ) {
+		map.putAll( this.entrySet() );
+	}
+
+	// Testing function
+	public static void main( String[] args ) throws IOException {
+		IntCountMap map = new IntCountMap( 16 );
+		map.put( "the", 300 );
+		map.put( "cat", 2 );
+		map.put( "zebra", 1 );
+		map.put( "don't", 150000 );
+		map.put( "na\u00efve", 7 );
+
+		String filename = args.length > 0 ? args[0] : "snapshot_test.wcs";
+		write( filename, 150310, map, BY_KEY );
+
+		WordCountSnapshot snap = open( filename );
+		System.out.println( "total: " + snap.getTotalWords() + ", entries: " + snap.size() );
+		System.out.println( snap.entrySet() );
+		System.out.println( "don't: " + snap.getCount( "don't" ) );
+		System.out.println( "zebra: " + snap.getCount( "zebra" ) );
+		System.out.println( "missing: " + snap.getCount( "missing" ) );
+
+		IntCountMap loaded = new IntCountMap( 16 );
+		snap.loadInto( loaded );
+		System.out.println( "loaded the: " + loaded.get( "the" ) );
+	}
+
+}
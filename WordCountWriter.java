@@ -0,0 +1,163 @@
+/*
+ * Name: WordCountWriter.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// Imports
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+
+// Writes "word count" lines in the text format of writeWordCountFile.
+// Lines go into one large direct buffer that is handed to the file's
+// channel whenever it fills. Words are encoded as UTF-8 and counts are
+// turned into digits by hand, so writing a line does not build any
+// Strings.
+public class WordCountWriter implements AutoCloseable {
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	//Fields
+	private FileOutputStream stream;
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private byte[] digits;
+
+	//Constructor; creates or replaces the file
+	public WordCountWriter( String filename ) throws IOException {
+		this.stream = new FileOutputStream( filename );
+		this.channel = this.stream.getChannel();
+		this.buffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+		this.digits = new byte[20];
+	}
+
+	// Write the header line holding the total word count
+	public void writeHeader( long totalWords ) throws IOException {
+		this.writeChars( "Total Word Count : " );
+		this.writeLong( totalWords );
+		this.writeByte( '\n' );
+	}
+
+	// Write one "word count" line
+	public void writeLine( String word, long count ) throws IOException {
+		this.writeChars( word );
+		this.writeByte( ' ' );
+		this.writeLong( count );
+		this.writeByte( '\n' );
+	}
+
+	// Write one line, for use as a MapSet.forEach action
+	// IOExceptions are rethrown unchecked because forEach cannot throw them
+	public void accept( String word, Integer count ) {
+		try {
+			this.writeLine( word, count );
+		}
+		catch(IOException ex) {
+			throw new UncheckedIOException( ex );
+		}
+	}
+
+	// Make room for n more bytes, writing out the buffer if it is too full
+	private void reserve( int n ) throws IOException {
+		if ( this.buffer.remaining() < n ) {
+			this.flush();
+		}
+	}
+
+	// Append a single byte
+	private void writeByte( int b ) throws IOException {
+		this.reserve( 1 );
+		this.buffer.put( (byte)b );
+	}
+
+	// Append the characters of s encoded as UTF-8
+	private void writeChars( String s ) throws IOException {
+		int length = s.length();
+		for ( int i = 0; i < length; i++ ) {
+			char c = s.charAt( i );
+			// Words are almost all ASCII, which is one byte per character
+			if ( c < 0x80 ) {
+				this.writeByte( c );
+			} else if ( c < 0x800 ) {
+				this.reserve( 2 );
+				this.buffer.put( (byte)(0xc0 | (c >> 6)) );
+				this.buffer.put( (byte)(0x80 | (c & 0x3f)) );
+			} else if ( Character.isHighSurrogate( c ) && i + 1 < length && Character.isLowSurrogate( s.charAt( i + 1 ) ) ) {
+				int cp = Character.toCodePoint( c, s.charAt( ++i ) );
+				this.reserve( 4 );
+				this.buffer.put( (byte)(0xf0 | (cp >> 18)) );
+				this.buffer.put( (byte)(0x80 | ((cp >> 12) & 0x3f)) );
+				this.buffer.put( (byte)(0x80 | ((cp >> 6) & 0x3f)) );
+				this.buffer.put( (byte)(0x80 | (cp & 0x3f)) );
+			} else if ( Character.isSurrogate( c ) ) {
+				// An unpaired surrogate has no UTF-8 form
+				this.writeByte( '?' );
+			} else {
+				this.reserve( 3 );
+				this.buffer.put( (byte)(0xe0 | (c >> 12)) );
+				this.buffer.put( (byte)(0x80 | ((c >> 6) & 0x3f)) );
+				this.buffer.put( (byte)(0x80 | (c & 0x3f)) );
+			}
+		}
+	}
+
+	// Append the decimal digits of value
+	private void writeLong( long value ) throws IOException {
+		if ( value < 0 ) {
+			this.writeByte( '-' );
+		}
+
+		// Fill the digits from the right, least significant first
+		// Each digit is taken with abs so Long.MIN_VALUE, which has no
+		// positive form, still works
+		int pos = this.digits.length;
+		do {
+			this.digits[--pos] = (byte)('0' + Math.abs( value % 10 ));
+			value /= 10;
+		} while ( value != 0 );
+
+		this.reserve( this.digits.length - pos );
+		this.buffer.put( this.digits, pos, this.digits.length - pos );
+	}
+
+	// Write everything in the buffer to the file
+	public void flush() throws IOException {
+		this.buffer.flip();
+		while ( this.buffer.hasRemaining() ) {
+			this.channel.write( this.buffer );
+		}
+		this.buffer.clear();
+	}
+
+	// Flush the buffer and close the file
+	public void close() throws IOException {
+		try {
+			this.flush();
+		}
+		finally {
+			this.stream.close();
+		}
+	}
+
+	// Testing function
+	public static void main( String[] args ) throws IOException {
+		String filename = args.length > 0 ? args[0] : "writer_test.txt";
+		WordCountWriter writer = new WordCountWriter( filename );
+		writer.writeHeader( 1234567890123L );
+		writer.writeLine( "the", 0 );
+		writer.writeLine( "don't", 2147483647 );
+		writer.writeLine( "na\u00efve", -42 );
+		writer.writeLine( "min", Long.MIN_VALUE );
+		writer.close();
+
+		for ( String line: Files.readAllLines( Paths.get( filename ) ) ) {
+			System.out.println( line );
+		}
+	}
+
+}
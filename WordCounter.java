@@ -8,62 +8,141 @@
 import java.util.ArrayList;
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class WordCounter {
+	// Map types accepted by the int constructor
+	public static final int BSTMAP = 0;
+	public static final int HASHMAP = 1;
+	public static final int COUNTMAP = 2;
+	public static final int AVLMAP = 3;
+	public static final int STRIPEDMAP = 4;
+	public static final int HYBRIDMAP = 5;
+	public static final int APPROXMAP = 6;
+	
+	// Largest piece of a file mapped at once by analyzeParallel
+	private static final long MAX_CHUNK = 1L << 30;
+	
 	//Fields
-	private int totalWords;
+	private int structType;
+	private long totalWords;
 	private MapSet<String, Integer> map;
+	private IntCountMap countMap;
+	private TopKTracker topK;
+	private HyperLogLog uniqueSketch;
 	
 	//Constructor; input True for BSTMap, False for Hashmap
 	public WordCounter( boolean structType ) {
+		this( structType ? BSTMAP : HASHMAP );
+	}
+	
+	//Constructor; input BSTMAP, HASHMAP, COUNTMAP, AVLMAP, STRIPEDMAP, HYBRIDMAP or APPROXMAP
+	// APPROXMAP counts in fixed memory; see ApproximateWordCounter
+	public WordCounter( int structType ) {
+		this.structType = structType;
 		this.totalWords = 0;
 		
-		if ( structType ) {
+		if ( structType == BSTMAP ) {
 			this.map = new BSTMap<String, Integer>( new StringAscending() );
+		} else if ( structType == AVLMAP ) {
+			this.map = new AVLMap<String, Integer>( new StringAscending() );
+		} else if ( structType == STRIPEDMAP ) {
+			this.map = new StripedHashmap<String, Integer>( 262144, 64 );
+		} else if ( structType == HYBRIDMAP ) {
+			this.map = new HybridHashmap<String, Integer>( 262144, new StringAscending() );
+		} else if ( structType == APPROXMAP ) {
+			this.map = new ApproximateWordCounter( 1 << 20, 5, true, 10000 );
+		} else if ( structType == COUNTMAP ) {
+			// Keep a typed reference so counting can skip boxing
+			this.countMap = new IntCountMap( 262144 );
+			this.map = this.countMap;
 		} else {
 			this.map = new HashmapList<String, Integer>( 200000, new StringAscending() );
 		}
 	}
 	
+	//Constructor; counts into an existing map that is safe to share
+	private WordCounter( int structType, MapSet<String, Integer> map ) {
+		this.structType = structType;
+		this.totalWords = 0;
+		this.map = map;
+	}
+	
 	// Process the contents of a word file, update the map
 	public void analyze( String filename ) {
 		try {
-			FileReader reader = new FileReader(filename);
-			BufferedReader buffRead = new BufferedReader(reader);
+			// The tokenizer finds and lowercases each word without
+			// splitting the text into intermediate strings
+			Tokenizer tokens = new Tokenizer( new FileReader(filename) );
 			
-			String line = buffRead.readLine();
-			while ( line != null ) {
-				// Break the line into a list of words
-				String[] words = line.split("[^a-zA-Z0-9']");
-				
-				// Process each word in the list
-				for (int i = 0; i < words.length; i++) {
-					String word = words[i].trim().toLowerCase();
-					
-					// Exclude words with no length
-					if ( word.length() > 0 ) {
-						// Update the tree with this instance of the word
-						if ( this.map.containsKey( word ) ) {
-							int num = this.map.get( word ) + 1;
-							this.map.put( word, num );
-						}
-						// If this is the first instance of the word:
-						else {
-							this.map.put( word, 1 );
-						}
-						// Increment the total words
-						this.totalWords++;
+			while ( tokens.next() ) {
+				this.addWord( tokens.buffer(), tokens.start(), tokens.length() );
+			}
+			
+			tokens.close();
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+	}
+	
+	// Process a word file using several threads at once, update the map
+	// The file is memory-mapped and cut into chunks that end between words.
+	// Each chunk is counted into its own map on its own thread, then the
+	// chunk maps are added into this map. A STRIPEDMAP counter is safe to
+	// share, so its chunks count straight into this map instead.
+	public void analyzeParallel( String filename, int numThreads ) {
+		ExecutorService pool = Executors.newFixedThreadPool( numThreads );
+		// The file closes however the counting ends; the mapped chunks
+		// stay readable after it does
+		try ( RandomAccessFile file = new RandomAccessFile( filename, "r" ) ) {
+			// Count each chunk on the pool
+			ArrayList<Future<WordCounter>> parts = new ArrayList<Future<WordCounter>>();
+			for ( ByteBuffer chunk: mapChunks( file.getChannel(), numThreads ) ) {
+				parts.add( pool.submit( () -> {
+					WordCounter part;
+					if ( this.structType == STRIPEDMAP ) {
+						part = new WordCounter( this.structType, this.map );
+					} else {
+						part = new WordCounter( this.structType );
 					}
-					
-				} // end for loop
-				line = buffRead.readLine();
-			} // end while loop
+					part.analyzeBuffer( chunk );
+					return part;
+				} ) );
+			}
 			
-			buffRead.close();
+			// Add the chunk counts into this map in file order
+			for ( Future<WordCounter> part: parts ) {
+				if ( this.structType == STRIPEDMAP ) {
+					this.totalWords += part.get().totalWords;
+				} else {
+					this.addCounts( part.get() );
+				}
+			}
+			
+			// Shared-map chunks bypass the tracker and the distinct-word
+			// sketch, so catch them up once
+			if ( this.structType == STRIPEDMAP ) {
+				if ( this.topK != null ) {
+					this.refreshTopK();
+				}
+				if ( this.uniqueSketch != null ) {
+					this.refreshUniqueSketch();
+				}
+			}
 		}
 		catch(FileNotFoundException ex) {
 		  System.out.println("unable to open file " + filename );
@@ -71,10 +150,188 @@ public class WordCounter {
 		catch(IOException ex) {
 		  System.out.println("error reading file " + filename);
 		}
+		catch(InterruptedException ex) {
+		  System.out.println("interrupted while reading file " + filename);
+		}
+		catch(ExecutionException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	// Map a file in read-only chunks that end between words, for counting
+	// on numThreads threads. There is at least one chunk per thread, and
+	// every chunk is small enough to map in one piece. The chunks stay
+	// readable after the channel is closed
+	static ArrayList<ByteBuffer> mapChunks( FileChannel channel, int numThreads ) throws IOException {
+		long fileSize = channel.size();
+		long numChunks = Math.max( numThreads, (fileSize + MAX_CHUNK - 1) / MAX_CHUNK );
+		long chunkSize = Math.max( 1, (fileSize + numChunks - 1) / numChunks );
+		
+		ArrayList<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+		long chunkStart = 0;
+		while ( chunkStart < fileSize ) {
+			long chunkEnd = nextSeparator( channel, Math.min( fileSize, chunkStart + chunkSize ) );
+			chunks.add( channel.map( FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart ) );
+			chunkStart = chunkEnd;
+		}
+		return chunks;
+	}
+	
+	// Return the first position at or after pos that is not inside a word,
+	// so that a chunk ending there does not split a word in two
+	static long nextSeparator( FileChannel channel, long pos ) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate( 256 );
+		long fileSize = channel.size();
+		while ( pos < fileSize ) {
+			window.clear();
+			int numRead = channel.read( window, pos );
+			for ( int i = 0; i < numRead; i++ ) {
+				if ( !Tokenizer.isWordChar( (char)(window.get( i ) & 0xff) ) ) {
+					return pos + i;
+				}
+			}
+			pos += numRead;
+		}
+		return fileSize;
+	}
+	
+	// Count every word in the remaining bytes of the buffer
+	private void analyzeBuffer( ByteBuffer bytes ) throws IOException {
+		Tokenizer tokens = new Tokenizer( bytes );
+		while ( tokens.next() ) {
+			this.addWord( tokens.buffer(), tokens.start(), tokens.length() );
+		}
+	}
+	
+	// Add the words and counts of another counter into this one
+	// Two APPROXMAP counters merge their sketches, not just their exact tables
+	public void addCounts( WordCounter other ) {
+		if ( this.map instanceof ApproximateWordCounter && other.map instanceof ApproximateWordCounter ) {
+			((ApproximateWordCounter)this.map).addCounts( (ApproximateWordCounter)other.map );
+			if ( this.topK != null ) {
+				this.refreshTopK();
+			}
+			if ( this.uniqueSketch != null && other.uniqueSketch != null ) {
+				this.uniqueSketch.merge( other.uniqueSketch );
+			}
+		} else {
+			other.map.forEach( this::addCount );
+		}
+		this.totalWords += other.totalWords;
+	}
+	
+	// Count one instance of a word, adding it to the map if it is new
+	private void addWord( String word ) {
+		this.addCount( word, 1 );
+		
+		// Increment the total words
+		this.totalWords++;
+	}
+	
+	// Count one instance of the word in buffer[start] to buffer[start + length - 1]
+	// With an IntCountMap, words already in the map are counted without
+	// making a String. The top-k tracker needs a String, so it uses the
+	// String path
+	private void addWord( char[] buffer, int start, int length ) {
+		if ( this.countMap == null || this.topK != null ) {
+			this.addWord( new String( buffer, start, length ) );
+			return;
+		}
+		
+		int count = this.countMap.increment( buffer, start, length, 1 );
+		if ( this.uniqueSketch != null && count == 1 ) {
+			this.uniqueSketch.add( buffer, start, length );
+		}
+		
+		// Increment the total words
+		this.totalWords++;
+	}
+	
+	// Add delta to a word's count in a single lookup, and tell the top-k
+	// tracker about the new count
+	private void addCount( String word, int delta ) {
+		int count;
+		if ( this.countMap != null ) {
+			count = this.countMap.increment( word, delta );
+		} else {
+			count = this.map.merge( word, delta, Integer::sum );
+		}
+		if ( this.topK != null ) {
+			this.topK.update( word, count );
+		}
+		// A word only needs to reach the sketch the first time it is seen
+		if ( this.uniqueSketch != null && count == delta ) {
+			this.uniqueSketch.add( word );
+		}
+	}
+	
+	// Start keeping a HyperLogLog sketch of the distinct words, which can
+	// be merged across files and years. Words already in the map are added now
+	public void trackUniqueWords( int precision ) {
+		this.uniqueSketch = new HyperLogLog( precision );
+		this.refreshUniqueSketch();
+	}
+	
+	// Add every word in the map to the distinct-word sketch
+	// Adding a word twice does not change the sketch, so anything already
+	// merged into it is kept
+	private void refreshUniqueSketch() {
+		this.map.forEach( (word, count) -> this.uniqueSketch.add( word ) );
+	}
+	
+	// Return the distinct-word sketch (only after trackUniqueWords)
+	public HyperLogLog getUniqueSketch() {
+		return this.uniqueSketch;
+	}
+	
+	// Build a distinct-word sketch of a file without building any map
+	// Returns null if the file could not be read
+	public static HyperLogLog sketchUniqueWords( String filename, int precision ) {
+		HyperLogLog sketch = new HyperLogLog( precision );
+		try {
+			Tokenizer tokens = new Tokenizer( new FileReader(filename) );
+			
+			// The sketch hashes the word straight out of the tokenizer buffer
+			while ( tokens.next() ) {
+				sketch.add( tokens.buffer(), tokens.start(), tokens.length() );
+			}
+			
+			tokens.close();
+			return sketch;
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+		return null;
+	}
+	
+	// Start keeping the k most frequent words up to date as words are
+	// counted. Words already in the map are added to the tracker now
+	public void trackTopK( int k ) {
+		this.topK = new TopKTracker( k );
+		this.refreshTopK();
+	}
+	
+	// Rebuild the top-k tracker from every pair in the map
+	private void refreshTopK() {
+		this.topK.clear();
+		this.map.forEach( this.topK::update );
+	}
+	
+	// Return the k most frequent words so far, most frequent first
+	// Only works after trackTopK; costs O(k log k), not a pass over the map
+	public ArrayList<KeyValuePair<String, Integer>> getTopK() {
+		return this.topK.getTopK();
 	}
 	
 	// Return the total number of words in the text document
-	public int getTotalWordCount() {
+	public long getTotalWordCount() {
 		return this.totalWords;
 	}
 	
@@ -93,22 +350,41 @@ public class WordCounter {
 		return this.map.toString();
 	}
 	
-	// Write the contents of the map to a word file
+	// Write the contents of the map to a word file, in map order
 	public void writeWordCountFile( String filename ) {
+		this.writeWordCountFile( filename, WordCountSnapshot.UNSORTED );
+	}
+	
+	// Write the contents of the map to a word file, in a WordCountSnapshot
+	// sort order. Unsorted output streams straight out of the map; sorting
+	// needs a list of the pairs, but not copies of them
+	public void writeWordCountFile( String filename, int sortOrder ) {
 		try {
-			FileWriter file = new FileWriter( filename );
-			file.write( "Total Word Count : " + this.getTotalWordCount() + "\n" );
-			ArrayList<KeyValuePair<String, Integer>> entries = this.map.entrySet();
-			for ( KeyValuePair<String, Integer> pair: entries ) {
-				file.write( pair.getKey() + " " + pair.getValue() + "\n");
+			WordCountWriter writer = new WordCountWriter( filename );
+			try {
+				writer.writeHeader( this.getTotalWordCount() );
+				if ( sortOrder == WordCountSnapshot.UNSORTED ) {
+					this.map.forEach( writer::accept );
+				} else {
+					ArrayList<KeyValuePair<String, Integer>> entries = this.map.entrySet();
+					WordCountSnapshot.sort( entries, sortOrder );
+					for ( KeyValuePair<String, Integer> pair: entries ) {
+						writer.writeLine( pair.getKey(), pair.getValue() );
+					}
+				}
+			}
+			finally {
+				writer.close();
 			}
-			file.close();
 		}
 		catch(FileNotFoundException ex) {
 		  System.out.println("unable to open file " + filename );
 		}
 		catch(IOException ex) {
-		  System.out.println("error reading file " + filename);
+		  System.out.println("error writing file " + filename);
+		}
+		catch(UncheckedIOException ex) {
+		  System.out.println("error writing file " + filename);
 		}
 	}
 	
@@ -124,15 +400,26 @@ public class WordCounter {
 			// Get the total number of words from the first line
 			String line = buffRead.readLine();
 			String[] words = line.split(":");
-			this.totalWords = Integer.parseInt( words[1].trim() );
+			this.totalWords = Long.parseLong( words[1].trim() );
 		
+			// Read every pair first so the map can be built in one bulk load
+			ArrayList<KeyValuePair<String, Integer>> pairs = new ArrayList<KeyValuePair<String, Integer>>();
 			line = buffRead.readLine();
 			while ( line != null ) {
 				words = line.split(" ");
-				this.map.put( words[0], Integer.parseInt( words[1].trim() ) );
+				int count = Integer.parseInt( words[1].trim() );
+				pairs.add( new KeyValuePair<String, Integer>( words[0], count ) );
+				if ( this.topK != null ) {
+					this.topK.update( words[0], count );
+				}
+				if ( this.uniqueSketch != null ) {
+					this.uniqueSketch.add( words[0] );
+				}
 			
 				line = buffRead.readLine();
 			}
+			buffRead.close();
+			this.map.putAll( pairs );
 		}
 		catch(FileNotFoundException ex) {
 		  System.out.println("unable to open file " + filename );
@@ -140,63 +427,247 @@ public class WordCounter {
 		catch(IOException ex) {
 		  System.out.println("error reading file " + filename);
 		}
-		
+
 	}
-	
+
+	// Write the counts to a binary snapshot file, in a WordCountSnapshot sort order
+	// Sorting by key lets WordCountSnapshot look up words without loading the file
+	public void writeSnapshot( String filename, int sortOrder ) {
+		try {
+			WordCountSnapshot.write( filename, this.totalWords, this.map, sortOrder );
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error writing file " + filename);
+		}
+	}
+
+	// Replace the counts with the contents of a snapshot file
+	public void readSnapshot( String filename ) {
+		try {
+			this.clear();
+			WordCountSnapshot snapshot = WordCountSnapshot.open( filename );
+			this.totalWords = snapshot.getTotalWords();
+			ArrayList<KeyValuePair<String, Integer>> pairs = snapshot.entrySet();
+			this.map.putAll( pairs );
+
+			for ( KeyValuePair<String, Integer> pair: pairs ) {
+				if ( this.topK != null ) {
+					this.topK.update( pair.getKey(), pair.getValue() );
+				}
+				if ( this.uniqueSketch != null ) {
+					this.uniqueSketch.add( pair.getKey() );
+				}
+			}
+		}
+		catch(FileNotFoundException ex) {
+		  System.out.println("unable to open file " + filename );
+		}
+		catch(IOException ex) {
+		  System.out.println("error reading file " + filename);
+		}
+	}
+
 	// Get the number of unique words in the file (the size of the map)
 	public int getUniqueWords() {
 		return this.map.size();
 	}
 	
 	// Calculate the average of the times, dropping the lowest and highest
+	// With two times or fewer, nothing is dropped
 	public double average( double[] times ) {
-		int shortIndex = 0;
+		double total = 0;
 		double shortest = times[0];
-		int longIndex = 0;
 		double longest = times[0];
 		
-		// Identify the longest and shortest times
-		for (int j = 0; j < 5; j++) {
-			if ( shortest > times[j] ) {
-				shortest = times[j];
-				shortIndex = j;
+		// Add up the times, identifying the longest and shortest
+		for ( double time: times ) {
+			total += time;
+			if ( shortest > time ) {
+				shortest = time;
 			}
-			if ( longest < times[j] ) {
-				longest = times[j];
-				longIndex = j;
+			if ( longest < time ) {
+				longest = time;
 			}
 		}
-		// Remove the longest and shortest times
-		times[shortIndex] = 0;
-		times[longIndex] = 0;
-		
-		// Calculate the average time
-		double averageTime = 0;
-		for ( double j: times ) {
-			averageTime += j;
+		if ( times.length <= 2 ) {
+			return total / times.length;
 		}
-		return averageTime /= 3;
+		
+		// Remove the longest and shortest times
+		return (total - shortest - longest) / (times.length - 2);
 	}
 	
-	// Get the maximum depth of the tree (BSTMap only)
+	// Get the maximum depth of the tree (BSTMap and AVLMap only)
 	public int getTreeDepth() {
+		if ( this.map instanceof AVLMap ) {
+			return ((AVLMap)this.map).getDepth();
+		}
 		return ((BSTMap)this.map).getDepth();
 	}
 	
-	// Get the number of collisions (Hashmap only)
+	// Get the number of collisions (HashmapList, IntCountMap and HybridHashmap only)
 	public int getCollisions() {
+		if ( this.countMap != null ) {
+			return this.countMap.getCollisions();
+		}
+		if ( this.map instanceof HybridHashmap ) {
+			return ((HybridHashmap)this.map).getCollisions();
+		}
 		return ((HashmapList)this.map).getCollisions();
 	}
 	
+	// Get a snapshot of the hash table's statistics (hash table backends only)
+	// Returns null for the other backends
+	public HashStats getHashStats() {
+		if ( this.map instanceof HashStatsSource ) {
+			return ((HashStatsSource)this.map).getHashStats();
+		}
+		return null;
+	}
+	
 	// Erase the existing map
 	public void clear() {
 		this.totalWords = 0;
 		this.map.clear();
+		if ( this.topK != null ) {
+			this.topK.clear();
+		}
+		if ( this.uniqueSketch != null ) {
+			this.uniqueSketch.clear();
+		}
+	}
+	
+	
+	// Analyze the file five times and return the average processing time
+	// in seconds, dropping the fastest and slowest runs
+	public double timeAnalyze( String filename ) {
+		double[] times = new double[5];
+		for (int j = 0; j < 5; j++) {
+			this.clear();
+			long beginTime = System.nanoTime();
+			this.analyze( filename );
+			times[j] = (System.nanoTime() - beginTime) / 1000000000.0;
+		}
+		return this.average( times );
+	}
+	
+	// Analyze many files at once, each into its own counter, using a pool of
+	// numThreads threads. Returns the counters in the same order as filenames.
+	// If times is not null, each file is timed with timeAnalyze and its
+	// average time is stored at the same index.
+	public static ArrayList<WordCounter> analyzeAll( String[] filenames, int structType, int numThreads, double[] times ) {
+		ExecutorService pool = Executors.newFixedThreadPool( numThreads );
+		ArrayList<Future<WordCounter>> results = new ArrayList<Future<WordCounter>>();
+		for (int i = 0; i < filenames.length; i++) {
+			final int index = i;
+			results.add( pool.submit( () -> {
+				WordCounter counter = new WordCounter( structType );
+				if ( times != null ) {
+					times[index] = counter.timeAnalyze( filenames[index] );
+				} else {
+					counter.analyze( filenames[index] );
+				}
+				return counter;
+			} ) );
+		}
+		
+		// Collect the counters in input order
+		ArrayList<WordCounter> counters = new ArrayList<WordCounter>();
+		try {
+			for ( Future<WordCounter> result: results ) {
+				counters.add( result.get() );
+			}
+		}
+		catch(InterruptedException ex) {
+		  System.out.println("interrupted while analyzing files");
+		}
+		catch(ExecutionException ex) {
+		  System.out.println("error analyzing files: " + ex.getCause());
+		}
+		finally {
+			pool.shutdown();
+		}
+		return counters;
+	}
+	
+	// Build one counter holding the combined counts of all the given counters
+	public static WordCounter combine( ArrayList<WordCounter> counters, int structType ) {
+		WordCounter total = new WordCounter( structType );
+		for ( WordCounter counter: counters ) {
+			total.addCounts( counter );
+		}
+		return total;
+	}
+	
+	// Pull out the year from the name of the original text file
+	private static String getYear( String filename ) {
+		String[] words = filename.split("[_.]");
+		return words[2];
 	}
 	
+	// Print one row of Hashmap data
+	private static void printRow( String label, double averageTime, WordCounter counter ) {
+		System.out.print( label );
+		System.out.print( "," + averageTime );
+		System.out.print( "," + counter.getCollisions() );
+		System.out.print( "," + counter.getUniqueWords() );
+		System.out.println( "," + counter.getTotalWordCount() );
+	}
+	
+	// Analyze every file in parallel, then print the rows in input order
+	// followed by a row for the combined corpus
+	// Usage: java WordCounter -batch <threads> file1 file2 ...
+	private static void batchMain( String[] args ) {
+		int numThreads = Integer.parseInt( args[1] );
+		String[] filenames = new String[args.length - 2];
+		System.arraycopy( args, 2, filenames, 0, filenames.length );
+		
+		double[] times = new double[filenames.length];
+		ArrayList<WordCounter> counters = analyzeAll( filenames, HASHMAP, numThreads, times );
+		
+		System.out.println( "year, average time, collisions, unique words, total words" );
+		for (int i = 0; i < counters.size(); i++) {
+			printRow( getYear( filenames[i] ), times[i], counters.get(i) );
+		}
+		
+		// The combined counter is only built once, so it has no time
+		printRow( "total", 0, combine( counters, HASHMAP ) );
+	}
+	
+	// Count one file with analyzeParallel on each backend, tracking the
+	// distinct words, and print the exact and estimated distinct counts.
+	// The estimate should be within about 1% for every backend
+	// Usage: java WordCounter -parallel <threads> file
+	private static void parallelMain( String[] args ) {
+		int numThreads = Integer.parseInt( args[1] );
+		String[] names = { "BSTMap", "HashmapList", "IntCountMap", "AVLMap", "StripedHashmap", "HybridHashmap" };
+		
+		System.out.println( "map, unique words, estimated unique words, total words" );
+		for ( int structType = BSTMAP; structType <= HYBRIDMAP; structType++ ) {
+			WordCounter counter = new WordCounter( structType );
+			counter.trackUniqueWords( 14 );
+			counter.analyzeParallel( args[2], numThreads );
+			System.out.print( names[structType] );
+			System.out.print( "," + counter.getUniqueWords() );
+			System.out.print( "," + counter.getUniqueSketch().estimate() );
+			System.out.println( "," + counter.getTotalWordCount() );
+		}
+	}
 	
 	// Test function
 	public static void main( String[] args ) {
+		if ( args.length > 1 && args[0].equals( "-batch" ) ) {
+			batchMain( args );
+			return;
+		}
+		if ( args.length > 2 && args[0].equals( "-parallel" ) ) {
+			parallelMain( args );
+			return;
+		}
+		
 		// Use true for BSTMap, false for Hashmap
 		WordCounter counter = new WordCounter( false );
 		
@@ -206,29 +677,15 @@ public class WordCounter {
 		// Hashmap data headings
 		System.out.println( "year, average time, collisions, unique words, total words" );
 		
-		long beginTime;
-		String[] words;
 		String fileYear;
-		double[] times;
 		
 		// Analyze each file provided at the command line
 		for (int i = 0; i < args.length; i++) {
-			times = new double[5];
-			
-			// Analyze the file five times, save the processing time
-			for (int j = 0; j < 5; j++) {
-				counter.clear();
-				beginTime = System.currentTimeMillis();
-				counter.analyze( args[i] );
-				times[j] = (System.currentTimeMillis() - beginTime) / 1000.0;	
-			}
-			
-			//Get the average of the processing times
-			double averageTime = counter.average( times );
+			// Analyze the file five times, get the average processing time
+			double averageTime = counter.timeAnalyze( args[i] );
 			
 			// Pull out the year from the name of the original text file
-			words = args[i].split("[_.]");
-			fileYear = words[2];
+			fileYear = getYear( args[i] );
 			
 			// Either the BSTMap or the Hashmap print statements must be commented out
 			
@@ -240,11 +697,7 @@ public class WordCounter {
 // 			System.out.println( "," + counter.getTreeDepth() );
 			
 			// Print Hashmap Data
-			System.out.print( fileYear );
-			System.out.print( "," + averageTime );
-			System.out.print( "," + counter.getCollisions() );
-			System.out.print( "," + counter.getUniqueWords() );
-			System.out.println( "," + counter.getTotalWordCount() );
+			printRow( fileYear, averageTime, counter );
 			
 		} // End loop over reddit files
 		
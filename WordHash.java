@@ -0,0 +1,42 @@
+/*
+ * Name: WordHash.java
+ * Author: Brendan Martin
+ * Date: 10/18/2026
+ */
+
+// 64-bit hash of a word, for the sketches that need more bits and better
+// mixing than String.hashCode gives. Each char is folded in FNV-1a style
+// and the result goes through the MurmurHash3 finalizer, so every input
+// bit affects every output bit.
+public class WordHash {
+
+	// Hash every char of a word
+	public static long hash64( CharSequence word ) {
+		long h = 0xcbf29ce484222325L;
+		for ( int i = 0; i < word.length(); i++ ) {
+			h = (h ^ word.charAt( i )) * 0x100000001b3L;
+		}
+		return mix( h );
+	}
+
+	// Hash the chars buffer[start] to buffer[start + length - 1]
+	// Gives the same result as hash64 of the same chars as a String
+	public static long hash64( char[] buffer, int start, int length ) {
+		long h = 0xcbf29ce484222325L;
+		for ( int i = start; i < start + length; i++ ) {
+			h = (h ^ buffer[i]) * 0x100000001b3L;
+		}
+		return mix( h );
+	}
+
+	// MurmurHash3 64-bit finalizer
+	private static long mix( long h ) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}